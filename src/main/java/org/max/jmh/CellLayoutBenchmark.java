@@ -0,0 +1,380 @@
+package org.max.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Array-of-structs vs struct-of-arrays for {@link LeetcodeBenchmark.Cell} tables.
+ *
+ * <ul>
+ *     <li>list - 'ArrayList<Cell>', reference to every record is loaded from the backing array first</li>
+ *     <li>array - 'Cell[]', same records without the list indirection</li>
+ *     <li>soa - struct-of-arrays, 'int[] heights, rows, cols'</li>
+ *     <li>packed - single 'long[]', see {@link CellSortBenchmark#pack}</li>
+ *     <li>segment - same packed longs, but off-heap in a {@link MemorySegment}</li>
+ * </ul>
+ *
+ * Workloads:
+ * <ul>
+ *     <li>scan - sum of all heights, touches a single field</li>
+ *     <li>filter - sum of coordinates for cells with height below median, touches all fields of ~50% of cells</li>
+ *     <li>sort - copy sorted by height, records are sorted with {@link LeetcodeBenchmark.Cell#HEIGHT_ASC},
+ *     struct-of-arrays sorts packed 'height, index' keys and gathers all columns, there is no in-place sort for
+ *     off-heap memory in JDK, so the segment is sorted through a temporary 'long[]'</li>
+ * </ul>
+ *
+ * Records in a list/array are allocated in the creation order and stay close to each other, so the record layouts
+ * here are the best case. After sort or with a long-living heap they are scattered and scan becomes pointer chasing.
+ *
+ * Every layout has its own state, so only the layout used by the running benchmark is allocated.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class CellLayoutBenchmark {
+
+    private static final int COLS = 8192;
+
+    private static final int MAX_HEIGHT = 1 << 30;
+    private static final int MEDIAN_HEIGHT = MAX_HEIGHT / 2;
+
+    @State(Scope.Benchmark)
+    public static class SizeState {
+        @Param({"1000", "100000", "10000000", "50000000"})
+        int size;
+    }
+
+    @State(Scope.Thread)
+    public static class ListState {
+        List<LeetcodeBenchmark.Cell> cells;
+
+        @Setup
+        public void setUp(SizeState sizeState) {
+            cells = new ArrayList<>(Arrays.asList(createCells(sizeState.size)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ArrayState {
+        LeetcodeBenchmark.Cell[] cells;
+
+        @Setup
+        public void setUp(SizeState sizeState) {
+            cells = createCells(sizeState.size);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SoaState {
+        int[] heights;
+        int[] rows;
+        int[] cols;
+
+        @Setup
+        public void setUp(SizeState sizeState) {
+            final int size = sizeState.size;
+            final int[] randHeights = createHeights(size);
+
+            heights = new int[size];
+            rows = new int[size];
+            cols = new int[size];
+
+            for (int i = 0; i < size; ++i) {
+                heights[i] = randHeights[i];
+                rows[i] = i / COLS;
+                cols[i] = i % COLS;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PackedState {
+        long[] cells;
+
+        @Setup
+        public void setUp(SizeState sizeState) {
+            final int size = sizeState.size;
+            final int[] heights = createHeights(size);
+
+            cells = new long[size];
+            for (int i = 0; i < size; ++i) {
+                cells[i] = CellSortBenchmark.pack(heights[i], i / COLS, i % COLS);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SegmentState {
+        Arena arena;
+        MemorySegment cells;
+
+        /**
+         * Destination for the sort, preallocated because off-heap allocation is not what we measure here.
+         */
+        MemorySegment sorted;
+
+        @Setup
+        public void setUp(SizeState sizeState) {
+            final int size = sizeState.size;
+            final int[] heights = createHeights(size);
+
+            arena = Arena.ofShared();
+            cells = arena.allocate((long) size * Long.BYTES, Long.BYTES);
+            sorted = arena.allocate((long) size * Long.BYTES, Long.BYTES);
+
+            for (int i = 0; i < size; ++i) {
+                cells.setAtIndex(ValueLayout.JAVA_LONG, i, CellSortBenchmark.pack(heights[i], i / COLS, i % COLS));
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            arena.close();
+        }
+    }
+
+    //==================================== scan ========================================================================
+
+    @Benchmark
+    public void listScan(ListState state, Blackhole bh) {
+        long sum = 0L;
+        for (LeetcodeBenchmark.Cell cell : state.cells) {
+            sum += cell.height();
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void arrayScan(ArrayState state, Blackhole bh) {
+        long sum = 0L;
+        for (LeetcodeBenchmark.Cell cell : state.cells) {
+            sum += cell.height();
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void soaScan(SoaState state, Blackhole bh) {
+        long sum = 0L;
+        for (int height : state.heights) {
+            sum += height;
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void packedScan(PackedState state, Blackhole bh) {
+        long sum = 0L;
+        for (long cell : state.cells) {
+            sum += CellSortBenchmark.height(cell);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void segmentScan(SegmentState state, Blackhole bh) {
+        final MemorySegment cells = state.cells;
+        final long size = cells.byteSize() / Long.BYTES;
+
+        long sum = 0L;
+        for (long i = 0; i < size; ++i) {
+            sum += CellSortBenchmark.height(cells.getAtIndex(ValueLayout.JAVA_LONG, i));
+        }
+        bh.consume(sum);
+    }
+
+    //==================================== filter ======================================================================
+
+    @Benchmark
+    public void listFilter(ListState state, Blackhole bh) {
+        long sum = 0L;
+        for (LeetcodeBenchmark.Cell cell : state.cells) {
+            if (cell.height() < MEDIAN_HEIGHT) {
+                sum += cell.row() + cell.col();
+            }
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void arrayFilter(ArrayState state, Blackhole bh) {
+        long sum = 0L;
+        for (LeetcodeBenchmark.Cell cell : state.cells) {
+            if (cell.height() < MEDIAN_HEIGHT) {
+                sum += cell.row() + cell.col();
+            }
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void soaFilter(SoaState state, Blackhole bh) {
+        final int[] heights = state.heights;
+        final int[] rows = state.rows;
+        final int[] cols = state.cols;
+
+        long sum = 0L;
+        for (int i = 0; i < heights.length; ++i) {
+            if (heights[i] < MEDIAN_HEIGHT) {
+                sum += rows[i] + cols[i];
+            }
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void packedFilter(PackedState state, Blackhole bh) {
+        long sum = 0L;
+        for (long cell : state.cells) {
+            if (CellSortBenchmark.height(cell) < MEDIAN_HEIGHT) {
+                sum += CellSortBenchmark.row(cell) + CellSortBenchmark.col(cell);
+            }
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void segmentFilter(SegmentState state, Blackhole bh) {
+        final MemorySegment cells = state.cells;
+        final long size = cells.byteSize() / Long.BYTES;
+
+        long sum = 0L;
+        for (long i = 0; i < size; ++i) {
+            final long cell = cells.getAtIndex(ValueLayout.JAVA_LONG, i);
+            if (CellSortBenchmark.height(cell) < MEDIAN_HEIGHT) {
+                sum += CellSortBenchmark.row(cell) + CellSortBenchmark.col(cell);
+            }
+        }
+        bh.consume(sum);
+    }
+
+    //==================================== sort ========================================================================
+
+    @Benchmark
+    public void listSort(ListState state, Blackhole bh) {
+        List<LeetcodeBenchmark.Cell> sorted = new ArrayList<>(state.cells);
+        sorted.sort(LeetcodeBenchmark.Cell.HEIGHT_ASC);
+        bh.consume(sorted.get(0));
+    }
+
+    @Benchmark
+    public void arraySort(ArrayState state, Blackhole bh) {
+        LeetcodeBenchmark.Cell[] sorted = state.cells.clone();
+        Arrays.sort(sorted, LeetcodeBenchmark.Cell.HEIGHT_ASC);
+        bh.consume(sorted[0]);
+    }
+
+    @Benchmark
+    public void soaSort(SoaState state, Blackhole bh) {
+        final int[] heights = state.heights;
+        final int size = heights.length;
+
+        // heights are non-negative, so keys order is the heights order
+        long[] keys = new long[size];
+        for (int i = 0; i < size; ++i) {
+            keys[i] = ((long) heights[i] << Integer.SIZE) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] sortedHeights = new int[size];
+        int[] sortedRows = new int[size];
+        int[] sortedCols = new int[size];
+
+        for (int i = 0; i < size; ++i) {
+            final int idx = (int) keys[i];
+            sortedHeights[i] = heights[idx];
+            sortedRows[i] = state.rows[idx];
+            sortedCols[i] = state.cols[idx];
+        }
+
+        bh.consume(sortedHeights);
+        bh.consume(sortedRows);
+        bh.consume(sortedCols);
+    }
+
+    @Benchmark
+    public void packedSort(PackedState state, Blackhole bh) {
+        long[] sorted = state.cells.clone();
+        Arrays.sort(sorted);
+        bh.consume(sorted[0]);
+    }
+
+    @Benchmark
+    public void segmentSort(SegmentState state, Blackhole bh) {
+        long[] temp = state.cells.toArray(ValueLayout.JAVA_LONG);
+        Arrays.sort(temp);
+        MemorySegment.copy(temp, 0, state.sorted, ValueLayout.JAVA_LONG, 0L, temp.length);
+        bh.consume(state.sorted.getAtIndex(ValueLayout.JAVA_LONG, 0L));
+    }
+
+    private static LeetcodeBenchmark.Cell[] createCells(int size) {
+        final int[] heights = createHeights(size);
+
+        LeetcodeBenchmark.Cell[] cells = new LeetcodeBenchmark.Cell[size];
+        for (int i = 0; i < size; ++i) {
+            cells[i] = new LeetcodeBenchmark.Cell(heights[i], i / COLS, i % COLS);
+        }
+        return cells;
+    }
+
+    /**
+     * Same seed for all layouts, so every layout contains exactly the same cells.
+     */
+    private static int[] createHeights(int size) {
+        SplittableRandom rand = new SplittableRandom(133L);
+
+        int[] heights = new int[size];
+        for (int i = 0; i < size; ++i) {
+            heights[i] = rand.nextInt(MAX_HEIGHT);
+        }
+        return heights;
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar CellLayoutBenchmark
+     *
+     * Single workload only:
+     *    $ java -jar target/benchmarks.jar "CellLayoutBenchmark.*Scan"
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(CellLayoutBenchmark.class.getSimpleName())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
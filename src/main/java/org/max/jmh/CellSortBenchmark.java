@@ -0,0 +1,223 @@
+package org.max.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collect and sort trees by height, same as the first step of 'cutOffTree' in {@link LeetcodeBenchmark}.
+ *
+ * <ul>
+ *     <li>recordListSort - 'ArrayList<Cell>' sorted with 'Comparator.comparingInt(Cell::height)', every comparison
+ *     goes through the comparator and key extractor and dereferences two records</li>
+ *     <li>packedArraysSort - height, row and col packed into a single long, sorted with 'Arrays.sort(long[])'</li>
+ *     <li>packedRadixSort - same packed keys, LSD radix sort over height bits only</li>
+ * </ul>
+ *
+ * Packed layout: 'height << 32 | row << 16 | col', so natural long order is the order by height. Row and col
+ * can't exceed 65535.
+ *
+ * Memory per cell (64-bit JVM with compressed oops):
+ * <ul>
+ *     <li>record list - 16 bytes object header + 3 * 4 bytes fields = 24 bytes (aligned), plus 4 bytes reference
+ *     in the 'ArrayList' backing array, plus up to 50% of slack references after the array growth</li>
+ *     <li>packed - 8 bytes per cell, plus 8 bytes of temporary buffer for the radix sort</li>
+ * </ul>
+ * Run with '-prof gc' and divide 'gc.alloc.rate.norm' by 'cells' to check these numbers.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms3G", "-Xmx3G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class CellSortBenchmark {
+
+    private static final int HEIGHT_SHIFT = 32;
+    private static final int ROW_SHIFT = 16;
+    private static final long COORDINATE_MASK = 0xFFFFL;
+
+    @State(Scope.Thread)
+    public static class ForestState {
+
+        /**
+         * Number of cells, all cells contain trees. Forest is a square, so the real count is rounded down.
+         */
+        @Param({"10000", "100000", "1000000", "10000000"})
+        int cells;
+
+        int[][] m;
+
+        @Setup
+        public void setUp() {
+            final int side = (int) Math.sqrt(cells);
+
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            m = new int[side][side];
+            for (int[] row : m) {
+                for (int col = 0; col < row.length; ++col) {
+                    row[col] = rand.nextInt(2, Integer.MAX_VALUE);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void recordListSort(ForestState state, Blackhole bh) {
+        List<LeetcodeBenchmark.Cell> trees = LeetcodeBenchmark.treesByHeight(state.m);
+        bh.consume(trees.get(0));
+    }
+
+    @Benchmark
+    public void packedArraysSort(ForestState state, Blackhole bh) {
+        long[] trees = packTrees(state.m);
+        Arrays.sort(trees);
+        bh.consume(trees[0]);
+    }
+
+    @Benchmark
+    public void packedRadixSort(ForestState state, Blackhole bh) {
+        long[] trees = packTrees(state.m);
+        radixSortByHeight(trees, new long[trees.length]);
+        bh.consume(trees[0]);
+    }
+
+    static long pack(int height, int row, int col) {
+        return ((long) height << HEIGHT_SHIFT) | ((long) row << ROW_SHIFT) | col;
+    }
+
+    static int height(long packed) {
+        return (int) (packed >>> HEIGHT_SHIFT);
+    }
+
+    static int row(long packed) {
+        return (int) ((packed >>> ROW_SHIFT) & COORDINATE_MASK);
+    }
+
+    static int col(long packed) {
+        return (int) (packed & COORDINATE_MASK);
+    }
+
+    private static long[] packTrees(int[][] m) {
+        final int rows = m.length;
+        final int cols = m[0].length;
+
+        assert rows <= COORDINATE_MASK + 1 && cols <= COORDINATE_MASK + 1;
+
+        // first pass counts trees, so the result array is allocated exactly once
+        int treesCount = 0;
+        for (int[] row : m) {
+            for (int height : row) {
+                if (height > 1) {
+                    ++treesCount;
+                }
+            }
+        }
+
+        long[] trees = new long[treesCount];
+        int idx = 0;
+
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                if (m[row][col] > 1) {
+                    trees[idx++] = pack(m[row][col], row, col);
+                }
+            }
+        }
+
+        return trees;
+    }
+
+    /**
+     * Stable LSD radix sort with 8 bits digit over the height bits only, row and col bits keep the original
+     * row-major order. Heights are non-negative, so no sign flip is needed. All 4 histograms are built in a single
+     * pass and passes where all keys have the same digit are skipped (small heights need only 1-2 passes).
+     */
+    private static void radixSortByHeight(long[] arr, long[] buf) {
+        assert arr.length == buf.length;
+
+        if (arr.length == 0) {
+            return;
+        }
+
+        final int[][] counts = new int[4][256];
+
+        for (long val : arr) {
+            final int height = height(val);
+            ++counts[0][height & 0xFF];
+            ++counts[1][(height >>> 8) & 0xFF];
+            ++counts[2][(height >>> 16) & 0xFF];
+            ++counts[3][height >>> 24];
+        }
+
+        long[] from = arr;
+        long[] to = buf;
+
+        for (int digit = 0; digit < counts.length; ++digit) {
+            final int[] digitCounts = counts[digit];
+            final int shift = HEIGHT_SHIFT + digit * 8;
+
+            if (digitCounts[(int) ((from[0] >>> shift) & 0xFF)] == arr.length) {
+                continue;
+            }
+
+            int offset = 0;
+            for (int i = 0; i < digitCounts.length; ++i) {
+                int cnt = digitCounts[i];
+                digitCounts[i] = offset;
+                offset += cnt;
+            }
+
+            for (long val : from) {
+                to[digitCounts[(int) ((val >>> shift) & 0xFF)]++] = val;
+            }
+
+            long[] temp = from;
+            from = to;
+            to = temp;
+        }
+
+        if (from != arr) {
+            System.arraycopy(from, 0, arr, 0, arr.length);
+        }
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar CellSortBenchmark -prof gc
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(CellSortBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
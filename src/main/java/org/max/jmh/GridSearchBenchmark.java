@@ -0,0 +1,182 @@
+package org.max.jmh;
+
+import org.max.jmh.grid.FlatGrid;
+import org.max.jmh.grid.ForestGenerator;
+import org.max.jmh.grid.GridBfs;
+import org.max.jmh.grid.GridBitParallelBfs;
+import org.max.jmh.grid.GridPathEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single shortest path query on big seeded grids, from the top left corner to the farthest reachable cell
+ * near the bottom right corner, so the whole grid is explored.
+ *
+ * <ul>
+ *     <li>queueBfs - {@link LeetcodeBenchmark#shortestPathLength}, boxed cells in ArrayDeque</li>
+ *     <li>flatBfs - {@link GridBfs}, allocation-free queue based BFS</li>
+ *     <li>bitParallelBfs - {@link GridBitParallelBfs}, whole row expanded 64 cells at a time</li>
+ * </ul>
+ */
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GridSearchBenchmark {
+
+    @State(Scope.Thread)
+    public static class GridState {
+
+        @Param({"50", "256", "1024", "4096"})
+        int size;
+
+        @Param({"0.0", "0.1", "0.3"})
+        double obstacleDensity;
+
+        int[][] m;
+        FlatGrid grid;
+
+        LeetcodeBenchmark.Cell fromCell;
+        LeetcodeBenchmark.Cell toCell;
+        int from;
+        int to;
+
+        GridBfs flatBfs;
+        GridBitParallelBfs bitParallelBfs;
+
+        @Setup
+        public void setUp() throws IOException {
+            grid = ForestGenerator.loadOrGenerate(size, size, 0, obstacleDensity, 133L);
+            m = grid.toMatrix();
+
+            flatBfs = new GridBfs(grid.size());
+            bitParallelBfs = new GridBitParallelBfs(size, size);
+
+            choosePair();
+
+            fromCell = new LeetcodeBenchmark.Cell(m[grid.row(from)][grid.col(from)], grid.row(from), grid.col(from));
+            toCell = new LeetcodeBenchmark.Cell(m[grid.row(to)][grid.col(to)], grid.row(to), grid.col(to));
+        }
+
+        /**
+         * Start cell is the first cell near the top left corner (walking anti-diagonals) connected to at least
+         * half of all walkable cells, so it's never inside a small isolated pocket. Target is the reachable cell
+         * nearest to the bottom right corner.
+         */
+        private void choosePair() {
+            int walkableCnt = 0;
+            for (int cell : grid.cells()) {
+                if (cell != 0) {
+                    ++walkableCnt;
+                }
+            }
+
+            for (int diagonal = 0; diagonal < 2 * size - 1; ++diagonal) {
+                for (int row = Math.min(diagonal, size - 1); row >= 0 && diagonal - row < size; --row) {
+                    from = grid.index(row, diagonal - row);
+
+                    if (grid.cells()[from] == 0) {
+                        continue;
+                    }
+
+                    boolean[] reachable = new boolean[grid.size()];
+                    if (floodFill(from, reachable) * 2 >= walkableCnt) {
+                        to = lastReachable(reachable);
+                        return;
+                    }
+                }
+            }
+
+            throw new IllegalStateException("Grid doesn't have big enough connected area");
+        }
+
+        private int floodFill(int start, boolean[] reachable) {
+            final int[] cells = grid.cells();
+            final int[] queue = new int[grid.size()];
+
+            int head = 0;
+            int tail = 0;
+
+            queue[tail++] = start;
+            reachable[start] = true;
+
+            while (head != tail) {
+                int cur = queue[head++];
+
+                for (int offset : grid.neighbourOffsets()) {
+                    int next = cur + offset;
+                    if (cells[next] != 0 && !reachable[next]) {
+                        reachable[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+
+            return tail;
+        }
+
+        private int lastReachable(boolean[] reachable) {
+            for (int diagonal = 2 * (size - 1); diagonal >= 0; --diagonal) {
+                for (int row = Math.min(diagonal, size - 1); row >= 0 && diagonal - row < size; --row) {
+                    int idx = grid.index(row, diagonal - row);
+                    if (reachable[idx]) {
+                        return idx;
+                    }
+                }
+            }
+
+            throw new IllegalStateException("Start cell should be reachable from itself");
+        }
+    }
+
+    @Benchmark
+    public void queueBfs(GridState state, Blackhole bh) {
+        bh.consume(LeetcodeBenchmark.shortestPathLength(state.m, state.fromCell, state.toCell));
+    }
+
+    @Benchmark
+    public void flatBfs(GridState state, Blackhole bh) {
+        bh.consume(state.flatBfs.distance(state.grid, state.from, state.to));
+    }
+
+    @Benchmark
+    public void bitParallelBfs(GridState state, Blackhole bh) {
+        bh.consume(state.bitParallelBfs.distance(state.grid, state.from, state.to));
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar GridSearchBenchmark
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(GridSearchBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -1,22 +1,42 @@
 package org.max.jmh;
 
+import org.max.jmh.grid.FlatGrid;
+import org.max.jmh.grid.ForestGenerator;
+import org.max.jmh.grid.GridAStar;
+import org.max.jmh.grid.GridBfs;
+import org.max.jmh.grid.GridHadlock;
+import org.max.jmh.grid.GridPathEngine;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 
 @Fork(1)
@@ -408,11 +428,147 @@ public class LeetcodeBenchmark {
     }
 
 
+    /**
+     * Bigger seeded forests. Grid and sorted trees are prepared once, so only path search
+     * is measured for {@link FlatGrid} engines, 'generatedCutOffBench' still measures whole Solution2.
+     *
+     * Generated forests are cached in 'java.io.tmpdir' and memory mapped on the next trials, see
+     * {@link ForestGenerator#loadOrGenerate}. Sizes up to 8192 are supported, but Solution2 on 4096+ grids
+     * takes minutes per operation and all engines together need several GB of heap, so huge sizes are
+     * not in the defaults:
+     *
+     *    $ java -jar target/benchmarks.jar "LeetcodeBenchmark.generated(FlatBfs|AStar)Bench" -p size=4096,8192 -jvmArgs -Xmx8G
+     */
+    @State(Scope.Thread)
+    public static class GeneratedForestState {
+
+        @Param({"50", "200", "1000"})
+        int size;
+
+        @Param({"100"})
+        int treesCount;
+
+        @Param({"0.1", "0.3"})
+        double obstacleDensity;
+
+        List<List<Integer>> forest;
+        FlatGrid grid;
+        List<Cell> trees;
+
+        GridBfs bfs;
+        GridAStar aStar;
+        GridHadlock hadlock;
+
+        @Setup
+        public void setUp() throws IOException {
+            grid = ForestGenerator.loadOrGenerate(size, size, treesCount, obstacleDensity, 133L);
+
+            int[][] m = grid.toMatrix();
+            forest = fromMatrix(m);
+            trees = treesByHeight(m);
+
+            bfs = new GridBfs(grid.size());
+            aStar = new GridAStar(grid.size());
+            hadlock = new GridHadlock(grid.size());
+        }
+    }
+
+    /**
+     * Search effort of 'generated(FlatBfs|AStar|Hadlock)Bench'. JMH sums both counters over measurement iterations,
+     * so expanded nodes per cutOffTree is 'expandedNodes / cutOffTreeCalls'.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SearchEffortState {
+
+        public long expandedNodes;
+        public long cutOffTreeCalls;
+
+        int cutOffTree(GeneratedForestState forestState, GridPathEngine engine) {
+            long before = engine.expandedNodes();
+            int res = LeetcodeBenchmark.cutOffTree(forestState.grid, forestState.trees, engine);
+
+            expandedNodes += engine.expandedNodes() - before;
+            ++cutOffTreeCalls;
+
+            return res;
+        }
+    }
+
+    /**
+     * Worker pool and per-worker BFS engines for parallel Solution4, used together with {@link GeneratedForestState}.
+     */
+    @State(Scope.Thread)
+    public static class ParallelState {
+
+        @Param({"1", "2", "4", "8"})
+        int threads;
+
+        ExecutorService executor;
+        GridPathEngine[] engines;
+
+        @Setup
+        public void setUp(GeneratedForestState forestState) {
+            executor = new ForkJoinPool(threads);
+
+            engines = new GridPathEngine[threads];
+            for (int i = 0; i < engines.length; ++i) {
+                engines[i] = new GridBfs(forestState.grid.size());
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+    }
+
     @Benchmark
     public void cutOffBench(BenchmarkState benchmarkState, Blackhole bh) {
         bh.consume(cutOffTree(benchmarkState.INPUT));
     }
 
+    @Benchmark
+    public void cutOffFlatBfsBench(BenchmarkState benchmarkState, Blackhole bh) {
+        bh.consume(cutOffTree(benchmarkState.INPUT, GridBfs::new));
+    }
+
+    @Benchmark
+    public void cutOffAStarBench(BenchmarkState benchmarkState, Blackhole bh) {
+        bh.consume(cutOffTree(benchmarkState.INPUT, GridAStar::new));
+    }
+
+    @Benchmark
+    public void cutOffHadlockBench(BenchmarkState benchmarkState, Blackhole bh) {
+        bh.consume(cutOffTree(benchmarkState.INPUT, GridHadlock::new));
+    }
+
+    @Benchmark
+    public void generatedCutOffBench(GeneratedForestState state, Blackhole bh) {
+        bh.consume(cutOffTree(state.forest));
+    }
+
+    @Benchmark
+    public void generatedFlatBfsBench(GeneratedForestState state, SearchEffortState effort, Blackhole bh) {
+        bh.consume(effort.cutOffTree(state, state.bfs));
+    }
+
+    @Benchmark
+    public void generatedParallelBfsBench(GeneratedForestState state, ParallelState parallelState, Blackhole bh)
+            throws InterruptedException, ExecutionException {
+        bh.consume(cutOffTreeParallel(state.grid, state.trees, parallelState.executor, parallelState.engines));
+    }
+
+    @Benchmark
+    public void generatedAStarBench(GeneratedForestState state, SearchEffortState effort, Blackhole bh) {
+        bh.consume(effort.cutOffTree(state, state.aStar));
+    }
+
+    @Benchmark
+    public void generatedHadlockBench(GeneratedForestState state, SearchEffortState effort, Blackhole bh) {
+        bh.consume(effort.cutOffTree(state, state.hadlock));
+    }
+
 
     //================================= Solution1 ======================================================================
 
@@ -561,20 +717,7 @@ public class LeetcodeBenchmark {
         Objects.requireNonNull(forest);
         int[][] m = toMatrix(forest);
 
-        final int rows = m.length;
-        final int cols = m[0].length;
-
-        List<Cell> cellsWithTree = new ArrayList<>(rows);
-
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                if (m[row][col] > 1) {
-                    cellsWithTree.add(new Cell(m[row][col], row, col));
-                }
-            }
-        }
-
-        cellsWithTree.sort(Cell.HEIGHT_ASC);
+        List<Cell> cellsWithTree = treesByHeight(m);
 
         int stepsCnt = 0;
         Cell last = new Cell(m[0][0], 0, 0);
@@ -593,6 +736,25 @@ public class LeetcodeBenchmark {
         return stepsCnt;
     }
 
+    static List<Cell> treesByHeight(int[][] m) {
+        final int rows = m.length;
+        final int cols = m[0].length;
+
+        List<Cell> cellsWithTree = new ArrayList<>(rows);
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (m[row][col] > 1) {
+                    cellsWithTree.add(new Cell(m[row][col], row, col));
+                }
+            }
+        }
+
+        cellsWithTree.sort(Cell.HEIGHT_ASC);
+
+        return cellsWithTree;
+    }
+
     private static int[][] toMatrix(List<List<Integer>> forest) {
         int rows = forest.size();
 
@@ -619,7 +781,7 @@ public class LeetcodeBenchmark {
     }
 
     /** Uses standard BFS to find the shortest path length between 'from' and 'to' cells. */
-    private static int shortestPathLength(int[][] m, Cell from, Cell to) {
+    static int shortestPathLength(int[][] m, Cell from, Cell to) {
 
         if (m[from.row][from.col] == 0 || m[to.row][to.col] == 0) {
             return Integer.MAX_VALUE;
@@ -689,19 +851,114 @@ public class LeetcodeBenchmark {
     }
 
     record Cell(int height, int row, int col) {
-        private static final Comparator<Cell> HEIGHT_ASC = Comparator.comparingInt(Cell::height);
+        static final Comparator<Cell> HEIGHT_ASC = Comparator.comparingInt(Cell::height);
 
         public boolean isSameCell(Cell other) {
             return row == other.row && col == other.col;
         }
     }
 
+    //==================================== Solution3 ===================================================================
+
+    /**
+     * Same as Solution2, but path search runs over {@link FlatGrid} with one of the allocation-free engines:
+     * {@link GridBfs}, {@link GridAStar} or {@link GridHadlock}. Grid, engine scratch buffers and sorted trees
+     * are allocated once per call, nothing is allocated per search.
+     *
+     * @param engineFactory creates engine from the grid size
+     */
+    public static int cutOffTree(List<List<Integer>> forest, IntFunction<GridPathEngine> engineFactory) {
+        Objects.requireNonNull(forest);
+        int[][] m = toMatrix(forest);
+
+        FlatGrid grid = FlatGrid.fromMatrix(m);
+
+        return cutOffTree(grid, treesByHeight(m), engineFactory.apply(grid.size()));
+    }
+
+    /**
+     * Sum of the shortest paths between consecutive trees, starting from (0, 0), using any {@link GridPathEngine}.
+     */
+    static int cutOffTree(FlatGrid grid, List<Cell> cellsWithTree, GridPathEngine engine) {
+        int stepsCnt = 0;
+        int last = grid.index(0, 0);
+
+        for (Cell next : cellsWithTree) {
+            int nextIdx = grid.index(next.row(), next.col());
+            int pathLength = engine.distance(grid, last, nextIdx);
+
+            if (pathLength == GridPathEngine.UNREACHABLE) {
+                return -1;
+            }
+
+            stepsCnt += pathLength;
+            last = nextIdx;
+        }
+
+        return stepsCnt;
+    }
+
+    //==================================== Solution4 ===================================================================
+
+    /**
+     * Paths between consecutive trees are independent, so they are computed concurrently by 'engines.length'
+     * workers. Every worker owns its engine (scratch buffers are never shared) and takes the next pair from
+     * the shared counter, so long and short searches are balanced. All workers stop as soon as
+     * any pair is unreachable.
+     */
+    static int cutOffTreeParallel(FlatGrid grid, List<Cell> cellsWithTree, ExecutorService executor,
+                                  GridPathEngine[] engines) throws InterruptedException, ExecutionException {
+
+        // stops[i] -> stops[i + 1] is a single pair
+        final int[] stops = new int[cellsWithTree.size() + 1];
+        stops[0] = grid.index(0, 0);
+        for (int i = 0; i < cellsWithTree.size(); ++i) {
+            Cell tree = cellsWithTree.get(i);
+            stops[i + 1] = grid.index(tree.row(), tree.col());
+        }
+
+        final int pairsCnt = cellsWithTree.size();
+        final AtomicInteger nextPair = new AtomicInteger();
+        final AtomicBoolean unreachable = new AtomicBoolean();
+
+        List<Callable<Integer>> workers = new ArrayList<>(engines.length);
+
+        for (GridPathEngine engine : engines) {
+            workers.add(() -> {
+                int stepsCnt = 0;
+                int pair;
+
+                while (!unreachable.get() && (pair = nextPair.getAndIncrement()) < pairsCnt) {
+                    int pathLength = engine.distance(grid, stops[pair], stops[pair + 1]);
+
+                    if (pathLength == GridPathEngine.UNREACHABLE) {
+                        unreachable.set(true);
+                        break;
+                    }
+
+                    stepsCnt += pathLength;
+                }
+
+                return stepsCnt;
+            });
+        }
+
+        int stepsCnt = 0;
+        for (Future<Integer> singleWorkerSteps : executor.invokeAll(workers)) {
+            stepsCnt += singleWorkerSteps.get();
+        }
+
+        return unreachable.get() ? -1 : stepsCnt;
+    }
+
     //==================================================================================================================
 
     /*
 
     java -jar target/benchmarks.jar LeetcodeBenchmark -rf json -rff jmh-leetcode-1.json
 
+    java -jar target/benchmarks.jar LeetcodeBenchmark -prof gc
+
     java -jar target/benchmarks.jar LeetcodeBenchmark -rf json -rff jmh-leetcode-2.json
 
     ./compare_jmh_results.sh jmh-leetcode-1.json jmh-leetcode-2.json
@@ -710,6 +967,7 @@ public class LeetcodeBenchmark {
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
             .include(LeetcodeBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
             .build();
 
         new Runner(opt).run();
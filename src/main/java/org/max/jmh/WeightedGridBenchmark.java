@@ -0,0 +1,107 @@
+package org.max.jmh;
+
+import org.max.jmh.grid.FlatGrid;
+import org.max.jmh.grid.ForestGenerator;
+import org.max.jmh.grid.GridDijkstra;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weighted shortest path on seeded forests, where entering a cell costs the tree height (plain ground costs 1),
+ * from the top left corner to the last tree in row-major order, so nearly the whole grid is settled.
+ *
+ * Same {@link GridDijkstra} with different open sets, see {@link GridDijkstra.QueueType}.
+ * Tree heights are distinct, so the max weight grows with 'treesPercent': Dial's queue has to step over
+ * more empty buckets, while radix heap doesn't depend on the max weight at all.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms3G", "-Xmx3G"})
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WeightedGridBenchmark {
+
+    @State(Scope.Thread)
+    public static class GridState {
+
+        @Param({"256", "1024", "4096"})
+        int size;
+
+        /**
+         * Percent of cells with a tree.
+         */
+        @Param({"1", "10"})
+        int treesPercent;
+
+        @Param({"PRIORITY_QUEUE", "DARY_HEAP", "RADIX_HEAP", "DIAL"})
+        GridDijkstra.QueueType queue;
+
+        FlatGrid grid;
+        int from;
+        int to;
+
+        GridDijkstra dijkstra;
+
+        @Setup
+        public void setUp() throws IOException {
+            final int treesCount = (int) ((long) size * size * treesPercent / 100);
+
+            grid = ForestGenerator.loadOrGenerate(size, size, treesCount, 0.1, 133L);
+            dijkstra = new GridDijkstra(grid.size(), queue);
+
+            // trees are placed only in the area reachable from the origin
+            from = grid.index(0, 0);
+            to = lastTree();
+        }
+
+        private int lastTree() {
+            for (int idx = grid.size() - 1; idx >= 0; --idx) {
+                if (grid.cells()[idx] > 1) {
+                    return idx;
+                }
+            }
+
+            throw new IllegalStateException("Grid doesn't have trees");
+        }
+    }
+
+    @Benchmark
+    public void dijkstra(GridState state, Blackhole bh) {
+        bh.consume(state.dijkstra.distance(state.grid, state.from, state.to));
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar WeightedGridBenchmark
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(WeightedGridBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(opt).run();
+    }
+}
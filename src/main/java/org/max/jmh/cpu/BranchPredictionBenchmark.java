@@ -6,7 +6,9 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
@@ -16,8 +18,12 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
 
 /*
 Measure branch mis-prediction effect on performance.
@@ -26,6 +32,11 @@ Benchmark                              Mode  Cnt        Score       Error  Units
 BranchPredictionBenchmark.randomArray  avgt    5  3165683.886 � 58231.982  ns/op
 BranchPredictionBenchmark.sortedArray  avgt    5   387693.393 �  7344.369  ns/op
 
+Branchless kernels (masking, ternary, Vector API masked add) are measured against the branchy one
+using 'takenPercent' param, that is the probability that 'value < 128' branch is taken.
+0% and 100% are perfectly predictable, 50% is the worst case for branch predictor.
+'ternaryNoCmov' runs the ternary kernel with '-XX:ConditionalMoveLimit=0', so C2 can't convert it to cmov.
+
 */
 @Fork(1)
 @BenchmarkMode(Mode.AverageTime)
@@ -58,6 +69,43 @@ public class BranchPredictionBenchmark {
         }
     }
 
+    @State(Scope.Thread)
+    public static class PredictabilityState {
+
+        /**
+         * Probability in percents that 'value < 128' is true.
+         */
+        @Param({"0", "1", "10", "50", "90", "99", "100"})
+        int takenPercent;
+
+        int[] arr;
+
+        @Setup
+        public void setUp() {
+            arr = generateArray(1_000_000, takenPercent);
+        }
+
+        /**
+         * All values are in [0; 256) range, so '(x - 128) >> 31' never overflows.
+         */
+        private static int[] generateArray(int length, int takenPercent) {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            int[] res = new int[length];
+
+            for (int i = 0; i < res.length; ++i) {
+                if (rand.nextInt(100) < takenPercent) {
+                    res[i] = rand.nextInt(128);
+                }
+                else {
+                    res[i] = 128 + rand.nextInt(128);
+                }
+            }
+
+            return res;
+        }
+    }
+
     @Benchmark
     public void randomArray(ThreadState threadState, Blackhole bh) {
         int totalSum = 0;
@@ -90,6 +138,93 @@ public class BranchPredictionBenchmark {
         bh.consume(sumBelow128);
     }
 
+    @Benchmark
+    public void branchy(PredictabilityState state, Blackhole bh) {
+        final int[] arr = state.arr;
+
+        int sumBelow128 = 0;
+        for (int i = 0; i < arr.length; ++i) {
+            if (arr[i] < 128) {
+                sumBelow128 += arr[i];
+            }
+        }
+
+        bh.consume(sumBelow128);
+    }
+
+    /**
+     * '(x - 128) >> 31' is all ones when x < 128 and zero otherwise, so no branch at all.
+     */
+    @Benchmark
+    public void branchlessMasking(PredictabilityState state, Blackhole bh) {
+        final int[] arr = state.arr;
+
+        int sumBelow128 = 0;
+        for (int i = 0; i < arr.length; ++i) {
+            sumBelow128 += arr[i] & ((arr[i] - 128) >> 31);
+        }
+
+        bh.consume(sumBelow128);
+    }
+
+    /**
+     * C2 decides itself between branch and cmov based on the branch profile.
+     */
+    @Benchmark
+    public void ternary(PredictabilityState state, Blackhole bh) {
+        bh.consume(sumBelow128Ternary(state.arr));
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-XX:ConditionalMoveLimit=0")
+    public void ternaryNoCmov(PredictabilityState state, Blackhole bh) {
+        bh.consume(sumBelow128Ternary(state.arr));
+    }
+
+    private static int sumBelow128Ternary(int[] arr) {
+        int sumBelow128 = 0;
+        for (int i = 0; i < arr.length; ++i) {
+            sumBelow128 += (arr[i] < 128) ? arr[i] : 0;
+        }
+        return sumBelow128;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsPrepend = "--add-modules=jdk.incubator.vector")
+    public void vectorMaskedAdd(PredictabilityState state, Blackhole bh) {
+        bh.consume(VectorKernel.sumBelow128MaskedAdd(state.arr));
+    }
+
+    /**
+     * Only 'vectorMaskedAdd' fork has 'jdk.incubator.vector' module, so Vector API classes are referenced from this
+     * class only and are not loaded by other benchmarks.
+     */
+    private static final class VectorKernel {
+
+        private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+        static int sumBelow128MaskedAdd(int[] arr) {
+            IntVector acc = IntVector.zero(SPECIES);
+
+            int i = 0;
+            for (int bound = SPECIES.loopBound(arr.length); i < bound; i += SPECIES.length()) {
+                IntVector cur = IntVector.fromArray(SPECIES, arr, i);
+                acc = acc.add(cur, cur.lt(128));
+            }
+
+            int sumBelow128 = acc.reduceLanes(VectorOperators.ADD);
+
+            // tail
+            for (; i < arr.length; ++i) {
+                if (arr[i] < 128) {
+                    sumBelow128 += arr[i];
+                }
+            }
+
+            return sumBelow128;
+        }
+    }
+
     /*
      * ============================== HOW TO RUN THIS BENCHMARK ====================================
      *
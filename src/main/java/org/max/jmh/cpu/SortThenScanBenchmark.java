@@ -0,0 +1,205 @@
+package org.max.jmh.cpu;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link BranchPredictionBenchmark} shows that scanning a sorted array is much faster, but the sorting cost is
+ * never measured there. Here the whole 'preprocess + scan' path is measured end to end against the plain
+ * scan of unsorted data.
+ *
+ * <ul>
+ *     <li>unsortedScan - baseline, no preprocessing, branch mis-predicted ~50% of the time</li>
+ *     <li>copyAndScan - baseline for the copy that every preprocessing variant does (input is never mutated)</li>
+ *     <li>arraysSortAndScan - dual-pivot quicksort</li>
+ *     <li>parallelSortAndScan - parallel merge sort using common ForkJoinPool</li>
+ *     <li>radixSortAndScan - LSD radix sort, 4 passes with 8 bits digit</li>
+ *     <li>partitionAndScan - single pass partition around the threshold, enough to make the branch predictable</li>
+ * </ul>
+ */
+@Fork(value = 1, jvmArgs = {"-Xms3G", "-Xmx3G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class SortThenScanBenchmark {
+
+    private static final int THRESHOLD = 128;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        @Param({"1000", "100000", "10000000", "100000000"})
+        int length;
+
+        int[] input;
+
+        /**
+         * Preallocated buffers, so we don't measure allocation of big arrays.
+         */
+        int[] work;
+        int[] radixBuf;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            input = new int[length];
+            for (int i = 0; i < input.length; ++i) {
+                input[i] = rand.nextInt();
+            }
+
+            work = new int[length];
+            radixBuf = new int[length];
+        }
+    }
+
+    @Benchmark
+    public void unsortedScan(ThreadState state, Blackhole bh) {
+        scan(state.input, bh);
+    }
+
+    @Benchmark
+    public void copyAndScan(ThreadState state, Blackhole bh) {
+        System.arraycopy(state.input, 0, state.work, 0, state.length);
+        scan(state.work, bh);
+    }
+
+    @Benchmark
+    public void arraysSortAndScan(ThreadState state, Blackhole bh) {
+        System.arraycopy(state.input, 0, state.work, 0, state.length);
+        Arrays.sort(state.work);
+        scan(state.work, bh);
+    }
+
+    @Benchmark
+    public void parallelSortAndScan(ThreadState state, Blackhole bh) {
+        System.arraycopy(state.input, 0, state.work, 0, state.length);
+        Arrays.parallelSort(state.work);
+        scan(state.work, bh);
+    }
+
+    @Benchmark
+    public void radixSortAndScan(ThreadState state, Blackhole bh) {
+        System.arraycopy(state.input, 0, state.work, 0, state.length);
+        radixSort(state.work, state.radixBuf);
+        scan(state.work, bh);
+    }
+
+    @Benchmark
+    public void partitionAndScan(ThreadState state, Blackhole bh) {
+        partition(state.input, state.work, THRESHOLD);
+        scan(state.work, bh);
+    }
+
+    /**
+     * Same scan as in {@link BranchPredictionBenchmark}.
+     */
+    private static void scan(int[] arr, Blackhole bh) {
+        int totalSum = 0;
+        int sumBelow128 = 0;
+
+        for (int i = 0; i < arr.length; ++i) {
+            if (arr[i] < THRESHOLD) {
+                sumBelow128 += arr[i];
+            }
+            totalSum += arr[i];
+        }
+
+        bh.consume(totalSum);
+        bh.consume(sumBelow128);
+    }
+
+    /**
+     * LSD radix sort with 8 bits digit. Uses 'buf' as temporary storage, after even number of passes
+     * sorted data ends up in 'arr'. The last pass flips the sign bit, so negative values go first.
+     */
+    private static void radixSort(int[] arr, int[] buf) {
+        assert arr.length == buf.length;
+
+        final int[] counts = new int[256];
+
+        int[] from = arr;
+        int[] to = buf;
+
+        for (int shift = 0; shift < Integer.SIZE; shift += 8) {
+            final int signFlip = (shift == 24) ? 0x80 : 0;
+
+            Arrays.fill(counts, 0);
+            for (int val : from) {
+                ++counts[((val >>> shift) & 0xFF) ^ signFlip];
+            }
+
+            int offset = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                int cnt = counts[i];
+                counts[i] = offset;
+                offset += cnt;
+            }
+
+            for (int val : from) {
+                to[counts[((val >>> shift) & 0xFF) ^ signFlip]++] = val;
+            }
+
+            int[] temp = from;
+            from = to;
+            to = temp;
+        }
+    }
+
+    /**
+     * Branchless single pass partition: values below 'threshold' are written from the start of 'to',
+     * all others backward from the end (so their order is reversed, that doesn't matter for the scan).
+     * Every value is written to both free slots and only one cursor moves, the other slot is overwritten later.
+     */
+    private static void partition(int[] from, int[] to, int threshold) {
+        int lo = 0;
+        int hi = to.length - 1;
+
+        for (int val : from) {
+            int below = (val < threshold) ? 1 : 0;
+
+            to[lo] = val;
+            to[hi] = val;
+
+            lo += below;
+            hi -= (1 - below);
+        }
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar SortThenScanBenchmark
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(SortThenScanBenchmark.class.getSimpleName())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
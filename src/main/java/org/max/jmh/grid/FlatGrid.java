@@ -0,0 +1,107 @@
+package org.max.jmh.grid;
+
+/**
+ * Read-only grid stored as a flat int[] in row-major order with one cell border of zeroes (sentinels) around it.
+ * Zero cell is an obstacle, so every neighbour of an inner cell is a valid index and search engines don't need
+ * any bounds checks, just 4 precomputed offsets.
+ */
+public final class FlatGrid {
+
+    private final int rows;
+    private final int cols;
+
+    /**
+     * Row length including 2 border cells.
+     */
+    private final int width;
+
+    private final int[] cells;
+
+    /**
+     * up, down, left, right
+     */
+    private final int[] neighbourOffsets;
+
+    /**
+     * @param cells already padded cells, see {@link GridFile}
+     */
+    FlatGrid(int rows, int cols, int[] cells) {
+        assert cells.length == (rows + 2) * (cols + 2);
+
+        this.rows = rows;
+        this.cols = cols;
+        this.width = cols + 2;
+        this.cells = cells;
+        this.neighbourOffsets = new int[] {-width, width, -1, 1};
+    }
+
+    public static FlatGrid fromMatrix(int[][] m) {
+        final int rows = m.length;
+        assert rows > 0;
+        final int cols = m[0].length;
+
+        final int width = cols + 2;
+        int[] cells = new int[(rows + 2) * width];
+
+        for (int row = 0; row < rows; ++row) {
+            System.arraycopy(m[row], 0, cells, (row + 1) * width + 1, cols);
+        }
+
+        return new FlatGrid(rows, cols, cells);
+    }
+
+    /**
+     * Copies cells back to a matrix without the border.
+     */
+    public int[][] toMatrix() {
+        int[][] m = new int[rows][cols];
+
+        for (int row = 0; row < rows; ++row) {
+            System.arraycopy(cells, (row + 1) * width + 1, m[row], 0, cols);
+        }
+
+        return m;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Total number of cells including the border.
+     */
+    public int size() {
+        return cells.length;
+    }
+
+    public int index(int row, int col) {
+        return (row + 1) * width + col + 1;
+    }
+
+    public int row(int index) {
+        return index / width - 1;
+    }
+
+    public int col(int index) {
+        return index % width - 1;
+    }
+
+    /**
+     * Direct access to the cells, should never be modified.
+     */
+    public int[] cells() {
+        return cells;
+    }
+
+    public int[] neighbourOffsets() {
+        return neighbourOffsets;
+    }
+}
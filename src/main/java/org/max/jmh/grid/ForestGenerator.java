@@ -0,0 +1,144 @@
+package org.max.jmh.grid;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded random forests for 'cutOffTree' problem: 0 is an obstacle, 1 is a walkable cell, values greater than 1
+ * are trees with distinct heights.
+ *
+ * First row and first column never contain obstacles, so (0, 0) is never locked in a small pocket and always
+ * belongs to the big connected area. All trees are placed in the area reachable from (0, 0), so 'cutOffTree'
+ * never exits early with -1.
+ *
+ * Generating a big forest takes much longer than loading it, so {@link #loadOrGenerate} caches generated
+ * forests in 'java.io.tmpdir' using {@link GridFile} format. Forest depends only on the arguments and
+ * {@link #VERSION}, so the cache is never stale.
+ */
+public final class ForestGenerator {
+
+    /**
+     * Part of the cached file name, should be incremented on every change of the generated forests.
+     */
+    private static final int VERSION = 2;
+
+    private ForestGenerator() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    public static FlatGrid loadOrGenerate(int rows, int cols, int treesCount, double obstacleDensity, long seed)
+            throws IOException {
+
+        Path file = Path.of(System.getProperty("java.io.tmpdir"),
+                String.format(Locale.ROOT, "forest-v%d-%dx%d-%d-%.3f-%d.grid", VERSION, rows, cols, treesCount,
+                        obstacleDensity, seed));
+
+        if (Files.notExists(file)) {
+            GridFile.write(file, generate(rows, cols, treesCount, obstacleDensity, seed));
+        }
+
+        return GridFile.read(file);
+    }
+
+    /**
+     * @param treesCount number of trees, capped by the size of reachable area
+     * @param obstacleDensity probability of a cell to be an obstacle, in [0; 1)
+     */
+    public static int[][] generate(int rows, int cols, int treesCount, double obstacleDensity, long seed) {
+        assert rows > 0 && cols > 0;
+        assert treesCount >= 0;
+        assert obstacleDensity >= 0.0 && obstacleDensity < 1.0;
+
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        int[][] m = new int[rows][cols];
+
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                m[row][col] = rand.nextDouble() < obstacleDensity ? 0 : 1;
+            }
+        }
+
+        Arrays.fill(m[0], 1);
+        for (int row = 0; row < rows; ++row) {
+            m[row][0] = 1;
+        }
+
+        int[] reachable = reachableFromOrigin(m);
+
+        // partial Fisher-Yates shuffle to choose distinct cells for trees
+        final int trees = Math.min(treesCount, reachable.length);
+        for (int i = 0; i < trees; ++i) {
+            int j = i + rand.nextInt(reachable.length - i);
+            int temp = reachable[i];
+            reachable[i] = reachable[j];
+            reachable[j] = temp;
+        }
+
+        // distinct heights 2..trees+1 in random order
+        int[] heights = new int[trees];
+        for (int i = 0; i < trees; ++i) {
+            heights[i] = i + 2;
+        }
+        for (int i = trees - 1; i > 0; --i) {
+            int j = rand.nextInt(i + 1);
+            int temp = heights[i];
+            heights[i] = heights[j];
+            heights[j] = temp;
+        }
+
+        for (int i = 0; i < trees; ++i) {
+            m[reachable[i] / cols][reachable[i] % cols] = heights[i];
+        }
+
+        return m;
+    }
+
+    /**
+     * Flood fill from (0, 0), returns row-major indexes of all reachable cells.
+     */
+    private static int[] reachableFromOrigin(int[][] m) {
+        final int rows = m.length;
+        final int cols = m[0].length;
+
+        boolean[] marked = new boolean[rows * cols];
+        int[] queue = new int[rows * cols];
+
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = 0;
+        marked[0] = true;
+
+        while (head != tail) {
+            int cur = queue[head++];
+            int row = cur / cols;
+            int col = cur % cols;
+
+            if (row > 0 && m[row - 1][col] != 0 && !marked[cur - cols]) {
+                marked[cur - cols] = true;
+                queue[tail++] = cur - cols;
+            }
+            if (row < rows - 1 && m[row + 1][col] != 0 && !marked[cur + cols]) {
+                marked[cur + cols] = true;
+                queue[tail++] = cur + cols;
+            }
+            if (col > 0 && m[row][col - 1] != 0 && !marked[cur - 1]) {
+                marked[cur - 1] = true;
+                queue[tail++] = cur - 1;
+            }
+            if (col < cols - 1 && m[row][col + 1] != 0 && !marked[cur + 1]) {
+                marked[cur + 1] = true;
+                queue[tail++] = cur + 1;
+            }
+        }
+
+        int[] res = new int[tail];
+        System.arraycopy(queue, 0, res, 0, tail);
+        return res;
+    }
+}
@@ -0,0 +1,177 @@
+package org.max.jmh.grid;
+
+import java.util.Arrays;
+
+/**
+ * A* search with Manhattan distance heuristic. Heuristic is consistent for 4-directional unit moves,
+ * so every node is expanded at most once.
+ *
+ * Open set is a binary min-heap of primitive keys '(f << 32) | h', so among nodes with the same 'f'
+ * the one closer to the target is expanded first. Costs and closed marks use generation stamps,
+ * so all buffers are reused across searches.
+ */
+public final class GridAStar implements GridPathEngine {
+
+    /**
+     * Row and column deltas matching {@link FlatGrid#neighbourOffsets()} order: up, down, left, right.
+     */
+    private static final int[] ROW_DELTA = {-1, 1, 0, 0};
+    private static final int[] COL_DELTA = {0, 0, -1, 1};
+
+    private final int[] cost;
+    private final int[] costStamp;
+    private final int[] closedStamp;
+    private int generation;
+
+    private long[] heapKeys = new long[1024];
+    private int[] heapNodes = new int[1024];
+    private int heapSize;
+
+    private long expandedNodes;
+
+    /**
+     * @param capacity max grid size, see {@link FlatGrid#size()}
+     */
+    public GridAStar(int capacity) {
+        this.cost = new int[capacity];
+        this.costStamp = new int[capacity];
+        this.closedStamp = new int[capacity];
+    }
+
+    @Override
+    public int distance(FlatGrid grid, int from, int to) {
+        assert grid.size() <= cost.length;
+
+        final int[] cells = grid.cells();
+
+        if (cells[from] == 0 || cells[to] == 0) {
+            return UNREACHABLE;
+        }
+
+        if (from == to) {
+            return 0;
+        }
+
+        final int[] offsets = grid.neighbourOffsets();
+        final int width = grid.width();
+        final int gen = nextGeneration();
+
+        final int toRow = to / width;
+        final int toCol = to % width;
+
+        heapSize = 0;
+
+        cost[from] = 0;
+        costStamp[from] = gen;
+        int fromH = Math.abs(from / width - toRow) + Math.abs(from % width - toCol);
+        push(fromH, fromH, from);
+
+        while (heapSize != 0) {
+            final int cur = heapNodes[0];
+            pop();
+
+            if (closedStamp[cur] == gen) {
+                continue;
+            }
+            closedStamp[cur] = gen;
+            ++expandedNodes;
+
+            if (cur == to) {
+                return cost[cur];
+            }
+
+            final int nextCost = cost[cur] + 1;
+            final int curRow = cur / width;
+            final int curCol = cur - curRow * width;
+
+            for (int i = 0; i < offsets.length; ++i) {
+                final int next = cur + offsets[i];
+
+                if (cells[next] == 0 || closedStamp[next] == gen) {
+                    continue;
+                }
+
+                if (costStamp[next] == gen && cost[next] <= nextCost) {
+                    continue;
+                }
+
+                cost[next] = nextCost;
+                costStamp[next] = gen;
+
+                int h = Math.abs(curRow + ROW_DELTA[i] - toRow) + Math.abs(curCol + COL_DELTA[i] - toCol);
+                push(nextCost + h, h, next);
+            }
+        }
+
+        return UNREACHABLE;
+    }
+
+    @Override
+    public long expandedNodes() {
+        return expandedNodes;
+    }
+
+    private void push(int f, int h, int node) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize << 1);
+            heapNodes = Arrays.copyOf(heapNodes, heapSize << 1);
+        }
+
+        final long key = ((long) f << 32) | h;
+
+        // sift up
+        int idx = heapSize++;
+        while (idx > 0) {
+            int parent = (idx - 1) >>> 1;
+            if (heapKeys[parent] <= key) {
+                break;
+            }
+            heapKeys[idx] = heapKeys[parent];
+            heapNodes[idx] = heapNodes[parent];
+            idx = parent;
+        }
+
+        heapKeys[idx] = key;
+        heapNodes[idx] = node;
+    }
+
+    private void pop() {
+        --heapSize;
+        if (heapSize == 0) {
+            return;
+        }
+
+        final long key = heapKeys[heapSize];
+        final int node = heapNodes[heapSize];
+
+        // sift down
+        int idx = 0;
+        int child;
+        while ((child = 2 * idx + 1) < heapSize) {
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                ++child;
+            }
+            if (key <= heapKeys[child]) {
+                break;
+            }
+            heapKeys[idx] = heapKeys[child];
+            heapNodes[idx] = heapNodes[child];
+            idx = child;
+        }
+
+        heapKeys[idx] = key;
+        heapNodes[idx] = node;
+    }
+
+    private int nextGeneration() {
+        ++generation;
+
+        if (generation == 0) {
+            Arrays.fill(costStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+
+        return generation;
+    }
+}
@@ -0,0 +1,107 @@
+package org.max.jmh.grid;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free layered BFS.
+ *
+ * <ul>
+ *     <li>queue is an int[] ring buffer of flat cell indexes, no boxing</li>
+ *     <li>visited marks are generation stamps, so the array is reused across searches without clearing</li>
+ *     <li>neighbours are precomputed offsets, sentinel border of {@link FlatGrid} removes bounds checks</li>
+ * </ul>
+ */
+public final class GridBfs implements GridPathEngine {
+
+    private final int[] queue;
+    private final int queueMask;
+
+    private final int[] visited;
+    private int generation;
+
+    private long expandedNodes;
+
+    /**
+     * @param capacity max grid size, see {@link FlatGrid#size()}
+     */
+    public GridBfs(int capacity) {
+        this.queue = new int[ceilPowerOf2(capacity)];
+        this.queueMask = queue.length - 1;
+        this.visited = new int[capacity];
+    }
+
+    @Override
+    public int distance(FlatGrid grid, int from, int to) {
+        assert grid.size() <= visited.length;
+
+        final int[] cells = grid.cells();
+
+        if (cells[from] == 0 || cells[to] == 0) {
+            return UNREACHABLE;
+        }
+
+        if (from == to) {
+            return 0;
+        }
+
+        final int[] offsets = grid.neighbourOffsets();
+        final int gen = nextGeneration();
+
+        visited[from] = gen;
+
+        // 'head' and 'tail' are never wrapped, only the index into queue is masked
+        int head = 0;
+        int tail = 0;
+        queue[tail++ & queueMask] = from;
+
+        int pathLength = 0;
+
+        while (head != tail) {
+            ++pathLength;
+
+            final int layerEnd = tail;
+
+            while (head != layerEnd) {
+                final int cur = queue[head++ & queueMask];
+                ++expandedNodes;
+
+                for (int offset : offsets) {
+                    final int next = cur + offset;
+
+                    if (next == to) {
+                        return pathLength;
+                    }
+
+                    if (cells[next] != 0 && visited[next] != gen) {
+                        visited[next] = gen;
+                        queue[tail++ & queueMask] = next;
+                    }
+                }
+            }
+        }
+
+        return UNREACHABLE;
+    }
+
+    @Override
+    public long expandedNodes() {
+        return expandedNodes;
+    }
+
+    private int nextGeneration() {
+        ++generation;
+
+        if (generation == 0) {
+            // overflow, very rare, just clear all stamps
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+
+        return generation;
+    }
+
+    static int ceilPowerOf2(int value) {
+        assert value > 0 && value <= (1 << 30);
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
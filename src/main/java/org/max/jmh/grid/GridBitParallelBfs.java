@@ -0,0 +1,191 @@
+package org.max.jmh.grid;
+
+import java.util.Arrays;
+
+/**
+ * Bit-parallel BFS. Every grid row is a long[] bitset, so one BFS layer is expanded 64 cells at a time:
+ *
+ * <pre>
+ *     next = (frontier << 1 | frontier >>> 1 | rowAbove | rowBelow) & passable & ~visited
+ * </pre>
+ *
+ * Every layer rescans the area that frontier can reach after 'k' steps (rows and 64 bits words inside the
+ * diamond bounding box around the start), so per cell work is 64 times smaller than queue based BFS,
+ * but for long paths the same cells are rescanned on every layer. It pays off for short and medium
+ * paths with wide frontiers.
+ *
+ * Passable mask is built lazily and cached for the last used grid.
+ */
+public final class GridBitParallelBfs implements GridPathEngine {
+
+    private final int rows;
+    private final int cols;
+
+    /**
+     * Number of long words per single row.
+     */
+    private final int rowWords;
+
+    private final long[] passable;
+    private final long[] visited;
+    private long[] frontier;
+    private long[] next;
+
+    private FlatGrid maskGrid;
+
+    private long expandedNodes;
+
+    public GridBitParallelBfs(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rowWords = (cols + 63) >>> 6;
+
+        final int words = rows * rowWords;
+        this.passable = new long[words];
+        this.visited = new long[words];
+        this.frontier = new long[words];
+        this.next = new long[words];
+    }
+
+    @Override
+    public int distance(FlatGrid grid, int from, int to) {
+        assert grid.rows() == rows && grid.cols() == cols;
+
+        final int[] cells = grid.cells();
+
+        if (cells[from] == 0 || cells[to] == 0) {
+            return UNREACHABLE;
+        }
+
+        if (from == to) {
+            return 0;
+        }
+
+        if (maskGrid != grid) {
+            buildPassableMask(grid);
+        }
+
+        final int fromRow = grid.row(from);
+        final int fromCol = grid.col(from);
+
+        final int toWordIdx = grid.row(to) * rowWords + (grid.col(to) >>> 6);
+        final long toBit = 1L << grid.col(to);
+
+        // active area, grows by one row/column in every direction on each layer
+        int rowLo = fromRow;
+        int rowHi = fromRow;
+        int colLo = fromCol;
+        int colHi = fromCol;
+
+        final long[] passable = this.passable;
+        final long[] visited = this.visited;
+        final int rowWords = this.rowWords;
+        long[] frontier = this.frontier;
+        long[] next = this.next;
+
+        final int fromWordIdx = fromRow * rowWords + (fromCol >>> 6);
+        frontier[fromWordIdx] = 1L << fromCol;
+        visited[fromWordIdx] = 1L << fromCol;
+
+        int pathLength = 0;
+        int res = UNREACHABLE;
+        long expanded = 0L;
+
+        while (true) {
+            ++pathLength;
+
+            rowLo = Math.max(rowLo - 1, 0);
+            rowHi = Math.min(rowHi + 1, rows - 1);
+            colLo = Math.max(colLo - 1, 0);
+            colHi = Math.min(colHi + 1, cols - 1);
+
+            final int wordLo = colLo >>> 6;
+            final int wordHi = colHi >>> 6;
+
+            long anyNew = 0L;
+
+            for (int row = rowLo; row <= rowHi; ++row) {
+                final int rowStart = row * rowWords;
+
+                for (int word = wordLo; word <= wordHi; ++word) {
+                    final int idx = rowStart + word;
+
+                    final long cur = frontier[idx];
+                    final long prevWord = (word > 0) ? frontier[idx - 1] : 0L;
+                    final long nextWord = (word < rowWords - 1) ? frontier[idx + 1] : 0L;
+
+                    long reached = (cur << 1) | (prevWord >>> 63) | (cur >>> 1) | (nextWord << 63);
+
+                    if (row > 0) {
+                        reached |= frontier[idx - rowWords];
+                    }
+                    if (row < rows - 1) {
+                        reached |= frontier[idx + rowWords];
+                    }
+
+                    reached &= passable[idx] & ~visited[idx];
+
+                    next[idx] = reached;
+                    visited[idx] |= reached;
+                    anyNew |= reached;
+
+                    expanded += Long.bitCount(reached);
+                }
+            }
+
+            if ((next[toWordIdx] & toBit) != 0) {
+                res = pathLength;
+                break;
+            }
+
+            if (anyNew == 0L) {
+                break;
+            }
+
+            long[] temp = frontier;
+            frontier = next;
+            next = temp;
+        }
+
+        this.frontier = frontier;
+        this.next = next;
+        expandedNodes += expanded;
+
+        clear(rowLo, rowHi, colLo >>> 6, colHi >>> 6);
+
+        return res;
+    }
+
+    @Override
+    public long expandedNodes() {
+        return expandedNodes;
+    }
+
+    private void buildPassableMask(FlatGrid grid) {
+        Arrays.fill(passable, 0L);
+
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                if (grid.cells()[grid.index(row, col)] != 0) {
+                    passable[row * rowWords + (col >>> 6)] |= 1L << col;
+                }
+            }
+        }
+
+        maskGrid = grid;
+    }
+
+    /**
+     * Only the active area was touched by the last search, so only this area is cleared.
+     */
+    private void clear(int rowLo, int rowHi, int wordLo, int wordHi) {
+        for (int row = rowLo; row <= rowHi; ++row) {
+            final int from = row * rowWords + wordLo;
+            final int to = row * rowWords + wordHi + 1;
+
+            Arrays.fill(visited, from, to, 0L);
+            Arrays.fill(frontier, from, to, 0L);
+            Arrays.fill(next, from, to, 0L);
+        }
+    }
+}
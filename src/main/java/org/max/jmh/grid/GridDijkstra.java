@@ -0,0 +1,419 @@
+package org.max.jmh.grid;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Dijkstra over weighted grid, entering a cell costs its value (tree height, plain ground costs 1), so
+ * {@link #distance} returns the path cost instead of the number of steps.
+ *
+ * Open set is pluggable, see {@link QueueType}. All queues use lazy deletion (no decrease-key), node is pushed
+ * again when its cost improves and stale entries are skipped on pop. Entries are primitive keys
+ * '(cost << 32) | node', so the natural long order is the cost order.
+ *
+ * Costs and closed marks use generation stamps, so all buffers are reused across searches.
+ */
+public final class GridDijkstra implements GridPathEngine {
+
+    public enum QueueType {
+        /**
+         * {@link PriorityQueue} of boxed keys, baseline.
+         */
+        PRIORITY_QUEUE,
+
+        /**
+         * Primitive implicit 4-ary heap, half the depth of a binary heap and all children share a cache line.
+         */
+        DARY_HEAP,
+
+        /**
+         * Monotone radix heap, entries are bucketed by the highest bit that differs from the last popped cost.
+         * Every entry moves to lower buckets at most 32 times.
+         */
+        RADIX_HEAP,
+
+        /**
+         * Dial's circular bucket queue with 'maxWeight + 1' buckets, O(1) push and pop for small integer weights.
+         */
+        DIAL
+    }
+
+    private final int[] cost;
+    private final int[] costStamp;
+    private final int[] closedStamp;
+    private int generation;
+
+    private final DistanceQueue queue;
+
+    private FlatGrid weightGrid;
+    private int maxWeight;
+
+    private long expandedNodes;
+
+    /**
+     * @param capacity max grid size, see {@link FlatGrid#size()}
+     */
+    public GridDijkstra(int capacity, QueueType queueType) {
+        this.cost = new int[capacity];
+        this.costStamp = new int[capacity];
+        this.closedStamp = new int[capacity];
+
+        this.queue = switch (queueType) {
+            case PRIORITY_QUEUE -> new BoxedQueue();
+            case DARY_HEAP -> new QuaternaryHeap();
+            case RADIX_HEAP -> new RadixHeap();
+            case DIAL -> new DialQueue();
+        };
+    }
+
+    @Override
+    public int distance(FlatGrid grid, int from, int to) {
+        assert grid.size() <= cost.length;
+
+        final int[] cells = grid.cells();
+
+        if (cells[from] == 0 || cells[to] == 0) {
+            return UNREACHABLE;
+        }
+
+        if (from == to) {
+            return 0;
+        }
+
+        if (weightGrid != grid) {
+            maxWeight = maxWeight(grid);
+            weightGrid = grid;
+        }
+
+        final int[] offsets = grid.neighbourOffsets();
+        final int gen = nextGeneration();
+
+        queue.clear(maxWeight);
+
+        cost[from] = 0;
+        costStamp[from] = gen;
+        queue.push(0, from);
+
+        while (!queue.isEmpty()) {
+            final long entry = queue.pop();
+            final int cur = (int) entry;
+
+            if (closedStamp[cur] == gen) {
+                continue;
+            }
+            closedStamp[cur] = gen;
+            ++expandedNodes;
+
+            final int curCost = (int) (entry >>> 32);
+
+            if (cur == to) {
+                return curCost;
+            }
+
+            for (int offset : offsets) {
+                final int next = cur + offset;
+                final int weight = cells[next];
+
+                if (weight == 0 || closedStamp[next] == gen) {
+                    continue;
+                }
+
+                final int nextCost = curCost + weight;
+
+                if (costStamp[next] != gen || nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    costStamp[next] = gen;
+                    queue.push(nextCost, next);
+                }
+            }
+        }
+
+        return UNREACHABLE;
+    }
+
+    @Override
+    public long expandedNodes() {
+        return expandedNodes;
+    }
+
+    private static int maxWeight(FlatGrid grid) {
+        int max = 0;
+        for (int cell : grid.cells()) {
+            max = Math.max(max, cell);
+        }
+        return max;
+    }
+
+    private int nextGeneration() {
+        ++generation;
+
+        if (generation == 0) {
+            // overflow, very rare, just clear all stamps
+            Arrays.fill(costStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+
+        return generation;
+    }
+
+    private static long entry(int cost, int node) {
+        return ((long) cost << 32) | node;
+    }
+
+    /**
+     * Min priority queue of '(cost << 32) | node' entries. Costs are pushed in non-decreasing order relative to
+     * the last popped cost (Dijkstra property), monotone queues rely on it.
+     */
+    private interface DistanceQueue {
+
+        /**
+         * @param maxWeight max single edge weight, pushed cost never exceeds 'lastPopped + maxWeight'
+         */
+        void clear(int maxWeight);
+
+        void push(int cost, int node);
+
+        boolean isEmpty();
+
+        long pop();
+    }
+
+    private static final class BoxedQueue implements DistanceQueue {
+
+        private final PriorityQueue<Long> queue = new PriorityQueue<>();
+
+        @Override
+        public void clear(int maxWeight) {
+            queue.clear();
+        }
+
+        @Override
+        public void push(int cost, int node) {
+            queue.add(entry(cost, node));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        public long pop() {
+            return queue.poll();
+        }
+    }
+
+    private static final class QuaternaryHeap implements DistanceQueue {
+
+        private long[] heap = new long[1024];
+        private int size;
+
+        @Override
+        public void clear(int maxWeight) {
+            size = 0;
+        }
+
+        @Override
+        public void push(int cost, int node) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size << 1);
+            }
+
+            final long key = entry(cost, node);
+
+            // sift up
+            int idx = size++;
+            while (idx > 0) {
+                final int parent = (idx - 1) >>> 2;
+                if (heap[parent] <= key) {
+                    break;
+                }
+                heap[idx] = heap[parent];
+                idx = parent;
+            }
+            heap[idx] = key;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long pop() {
+            final long[] heap = this.heap;
+            final long top = heap[0];
+            final long key = heap[--size];
+
+            // sift down
+            int idx = 0;
+            while (true) {
+                final int firstChild = (idx << 2) + 1;
+                if (firstChild >= size) {
+                    break;
+                }
+
+                int minChild = firstChild;
+                final int lastChild = Math.min(firstChild + 4, size);
+                for (int child = firstChild + 1; child < lastChild; ++child) {
+                    if (heap[child] < heap[minChild]) {
+                        minChild = child;
+                    }
+                }
+
+                if (heap[minChild] >= key) {
+                    break;
+                }
+                heap[idx] = heap[minChild];
+                idx = minChild;
+            }
+            heap[idx] = key;
+
+            return top;
+        }
+    }
+
+    private static final class RadixHeap implements DistanceQueue {
+
+        /**
+         * Bucket 0 holds entries with cost equal to 'last', bucket 'i' entries whose cost differs from 'last'
+         * in bit 'i - 1' as the highest bit.
+         */
+        private final long[][] buckets = new long[Integer.SIZE + 1][];
+        private final int[] bucketSizes = new int[Integer.SIZE + 1];
+        private int size;
+        private int last;
+
+        RadixHeap() {
+            for (int i = 0; i < buckets.length; ++i) {
+                buckets[i] = new long[64];
+            }
+        }
+
+        @Override
+        public void clear(int maxWeight) {
+            Arrays.fill(bucketSizes, 0);
+            size = 0;
+            last = 0;
+        }
+
+        @Override
+        public void push(int cost, int node) {
+            assert cost >= last;
+            add(bucket(cost), entry(cost, node));
+            ++size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long pop() {
+            if (bucketSizes[0] == 0) {
+                redistribute();
+            }
+
+            --size;
+            return buckets[0][--bucketSizes[0]];
+        }
+
+        /**
+         * Moves the first non-empty bucket down, new 'last' is its min cost, so min entries end up in bucket 0
+         * and all others in the lower buckets.
+         */
+        private void redistribute() {
+            int idx = 1;
+            while (bucketSizes[idx] == 0) {
+                ++idx;
+            }
+
+            final long[] bucket = buckets[idx];
+            final int bucketSize = bucketSizes[idx];
+
+            long min = bucket[0];
+            for (int i = 1; i < bucketSize; ++i) {
+                min = Math.min(min, bucket[i]);
+            }
+            last = (int) (min >>> 32);
+
+            bucketSizes[idx] = 0;
+            for (int i = 0; i < bucketSize; ++i) {
+                add(bucket((int) (bucket[i] >>> 32)), bucket[i]);
+            }
+        }
+
+        private int bucket(int cost) {
+            return Integer.SIZE - Integer.numberOfLeadingZeros(cost ^ last);
+        }
+
+        private void add(int idx, long key) {
+            if (bucketSizes[idx] == buckets[idx].length) {
+                buckets[idx] = Arrays.copyOf(buckets[idx], bucketSizes[idx] << 1);
+            }
+            buckets[idx][bucketSizes[idx]++] = key;
+        }
+    }
+
+    private static final class DialQueue implements DistanceQueue {
+
+        private int[][] buckets = new int[0][];
+        private int[] bucketSizes = new int[0];
+        private int size;
+
+        /**
+         * Cost of the current bucket, all entries have cost in ['cur'; 'cur' + maxWeight].
+         */
+        private int cur;
+
+        @Override
+        public void clear(int maxWeight) {
+            if (buckets.length != maxWeight + 1) {
+                buckets = new int[maxWeight + 1][];
+                for (int i = 0; i < buckets.length; ++i) {
+                    buckets[i] = new int[16];
+                }
+                bucketSizes = new int[maxWeight + 1];
+            }
+            else {
+                Arrays.fill(bucketSizes, 0);
+            }
+
+            size = 0;
+            cur = 0;
+        }
+
+        @Override
+        public void push(int cost, int node) {
+            assert cost >= cur && cost - cur < buckets.length;
+
+            final int idx = cost % buckets.length;
+
+            if (bucketSizes[idx] == buckets[idx].length) {
+                buckets[idx] = Arrays.copyOf(buckets[idx], bucketSizes[idx] << 1);
+            }
+            buckets[idx][bucketSizes[idx]++] = node;
+            ++size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long pop() {
+            int idx = cur % buckets.length;
+
+            while (bucketSizes[idx] == 0) {
+                ++cur;
+                idx = (idx + 1 == buckets.length) ? 0 : idx + 1;
+            }
+
+            --size;
+            return entry(cur, buckets[idx][--bucketSizes[idx]]);
+        }
+    }
+}
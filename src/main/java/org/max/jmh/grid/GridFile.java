@@ -0,0 +1,148 @@
+package org.max.jmh.grid;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary grid format, read through memory mapped {@link FileChannel}, so even huge grids are loaded
+ * with a single pass over the mapped pages and without any text parsing.
+ *
+ * <pre>
+ *     offset  size  field
+ *     0       4     magic 'GRID'
+ *     4       4     version, currently 1
+ *     8       4     rows
+ *     12      4     cols
+ *     16      4     bytes per cell: 1, 2 or 4
+ *     20      ...   cells in row-major order, little endian, 1 and 2 bytes cells are unsigned
+ * </pre>
+ *
+ * Bytes per cell is the smallest width that fits the max cell value.
+ */
+public final class GridFile {
+
+    private static final int MAGIC = 0x47524944;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    private GridFile() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    public static void write(Path file, int[][] m) throws IOException {
+        final int rows = m.length;
+        final int cols = m[0].length;
+        final int bytesPerCell = bytesPerCell(m);
+
+        final long fileSize = HEADER_SIZE + (long) rows * cols * bytesPerCell;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid is too big for a single mapped buffer: " + fileSize + " bytes");
+        }
+
+        // write to temp file first, so readers never see partially written grid
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            buf.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(bytesPerCell);
+
+            for (int[] row : m) {
+                for (int cell : row) {
+                    switch (bytesPerCell) {
+                        case 1 -> buf.put((byte) cell);
+                        case 2 -> buf.putShort((short) cell);
+                        default -> buf.putInt(cell);
+                    }
+                }
+            }
+
+            buf.force();
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static FlatGrid read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a grid file: " + file);
+            }
+
+            final int version = buf.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported grid file version " + version + ": " + file);
+            }
+
+            final int rows = buf.getInt();
+            final int cols = buf.getInt();
+            final int bytesPerCell = buf.getInt();
+
+            if (channel.size() != HEADER_SIZE + (long) rows * cols * bytesPerCell) {
+                throw new IOException("Truncated grid file: " + file);
+            }
+
+            final int width = cols + 2;
+            int[] cells = new int[(rows + 2) * width];
+
+            for (int row = 0; row < rows; ++row) {
+                final int rowStart = (row + 1) * width + 1;
+
+                switch (bytesPerCell) {
+                    case 1 -> {
+                        for (int col = 0; col < cols; ++col) {
+                            cells[rowStart + col] = buf.get() & 0xFF;
+                        }
+                    }
+                    case 2 -> {
+                        for (int col = 0; col < cols; ++col) {
+                            cells[rowStart + col] = buf.getShort() & 0xFFFF;
+                        }
+                    }
+                    case 4 -> {
+                        // bulk copy of the whole row
+                        buf.asIntBuffer().get(cells, rowStart, cols);
+                        buf.position(buf.position() + cols * Integer.BYTES);
+                    }
+                    default -> throw new IOException("Incorrect bytes per cell " + bytesPerCell + ": " + file);
+                }
+            }
+
+            return new FlatGrid(rows, cols, cells);
+        }
+    }
+
+    private static int bytesPerCell(int[][] m) {
+        int min = 0;
+        int max = 0;
+
+        for (int[] row : m) {
+            for (int cell : row) {
+                min = Math.min(min, cell);
+                max = Math.max(max, cell);
+            }
+        }
+
+        if (min < 0) {
+            return Integer.BYTES;
+        }
+
+        if (max <= 0xFF) {
+            return 1;
+        }
+
+        return max <= 0xFFFF ? Short.BYTES : Integer.BYTES;
+    }
+}
@@ -0,0 +1,163 @@
+package org.max.jmh.grid;
+
+import java.util.Arrays;
+
+/**
+ * Hadlock's algorithm. Every path from 'from' to 'to' has length 'manhattan(from, to) + 2 * detours',
+ * where detour is a move away from the target, so it's enough to minimize the number of detours.
+ * This is done with 0-1 BFS: moves toward the target cost 0 and go to the front of the deque,
+ * detours cost 1 and go to the back.
+ *
+ * Deque is a growable int[] ring buffer, detours and closed marks use generation stamps,
+ * so all buffers are reused across searches.
+ */
+public final class GridHadlock implements GridPathEngine {
+
+    /**
+     * Row and column deltas matching {@link FlatGrid#neighbourOffsets()} order: up, down, left, right.
+     */
+    private static final int[] ROW_DELTA = {-1, 1, 0, 0};
+    private static final int[] COL_DELTA = {0, 0, -1, 1};
+
+    private final int[] detours;
+    private final int[] detoursStamp;
+    private final int[] closedStamp;
+    private int generation;
+
+    private int[] deque = new int[1024];
+    private int dequeMask = deque.length - 1;
+    private int head;
+    private int tail;
+
+    private long expandedNodes;
+
+    /**
+     * @param capacity max grid size, see {@link FlatGrid#size()}
+     */
+    public GridHadlock(int capacity) {
+        this.detours = new int[capacity];
+        this.detoursStamp = new int[capacity];
+        this.closedStamp = new int[capacity];
+    }
+
+    @Override
+    public int distance(FlatGrid grid, int from, int to) {
+        assert grid.size() <= detours.length;
+
+        final int[] cells = grid.cells();
+
+        if (cells[from] == 0 || cells[to] == 0) {
+            return UNREACHABLE;
+        }
+
+        if (from == to) {
+            return 0;
+        }
+
+        final int[] offsets = grid.neighbourOffsets();
+        final int width = grid.width();
+        final int gen = nextGeneration();
+
+        final int toRow = to / width;
+        final int toCol = to % width;
+
+        head = 0;
+        tail = 0;
+
+        detours[from] = 0;
+        detoursStamp[from] = gen;
+        pushFront(from);
+
+        while (head != tail) {
+            final int cur = deque[head++ & dequeMask];
+
+            if (closedStamp[cur] == gen) {
+                continue;
+            }
+            closedStamp[cur] = gen;
+            ++expandedNodes;
+
+            if (cur == to) {
+                int manhattan = Math.abs(from / width - toRow) + Math.abs(from % width - toCol);
+                return manhattan + 2 * detours[cur];
+            }
+
+            final int curDetours = detours[cur];
+            final int curRow = cur / width;
+            final int curCol = cur - curRow * width;
+            final int curManhattan = Math.abs(curRow - toRow) + Math.abs(curCol - toCol);
+
+            for (int i = 0; i < offsets.length; ++i) {
+                final int next = cur + offsets[i];
+
+                if (cells[next] == 0 || closedStamp[next] == gen) {
+                    continue;
+                }
+
+                final boolean towardTarget =
+                        Math.abs(curRow + ROW_DELTA[i] - toRow) + Math.abs(curCol + COL_DELTA[i] - toCol)
+                                < curManhattan;
+
+                final int nextDetours = towardTarget ? curDetours : curDetours + 1;
+
+                if (detoursStamp[next] == gen && detours[next] <= nextDetours) {
+                    continue;
+                }
+
+                detours[next] = nextDetours;
+                detoursStamp[next] = gen;
+
+                if (towardTarget) {
+                    pushFront(next);
+                }
+                else {
+                    pushBack(next);
+                }
+            }
+        }
+
+        return UNREACHABLE;
+    }
+
+    @Override
+    public long expandedNodes() {
+        return expandedNodes;
+    }
+
+    private void pushFront(int node) {
+        ensureCapacity();
+        deque[--head & dequeMask] = node;
+    }
+
+    private void pushBack(int node) {
+        ensureCapacity();
+        deque[tail++ & dequeMask] = node;
+    }
+
+    private void ensureCapacity() {
+        final int size = tail - head;
+
+        if (size == deque.length) {
+            int[] newDeque = new int[deque.length << 1];
+            for (int i = 0; i < size; ++i) {
+                newDeque[i] = deque[(head + i) & dequeMask];
+            }
+            deque = newDeque;
+            dequeMask = newDeque.length - 1;
+            head = 0;
+            tail = size;
+        }
+    }
+
+    private int nextGeneration() {
+        ++generation;
+
+        if (generation == 0) {
+            Arrays.fill(detoursStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+
+        return generation;
+    }
+}
@@ -0,0 +1,24 @@
+package org.max.jmh.grid;
+
+/**
+ * Shortest path length between 2 cells of a {@link FlatGrid} moving up, down, left or right
+ * and never stepping on a zero cell.
+ *
+ * Implementations keep reusable scratch buffers, so a single instance should never be used from several threads.
+ */
+public interface GridPathEngine {
+
+    int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * @param from flat index of the start cell, see {@link FlatGrid#index(int, int)}
+     * @param to flat index of the target cell
+     * @return number of steps or {@link #UNREACHABLE}
+     */
+    int distance(FlatGrid grid, int from, int to);
+
+    /**
+     * Total number of expanded nodes since the engine was created, used to compare the search effort.
+     */
+    long expandedNodes();
+}
@@ -0,0 +1,215 @@
+package org.max.jmh.iteration;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Memory access patterns over working sets from 16 KB (fits L1) up to 1 GB (DRAM, lots of TLB misses).
+ *
+ * <ul>
+ *     <li>sequential - linear scan, hardware prefetcher friendly</li>
+ *     <li>strided - fixed stride in ints, stride 16 touches a new 64 bytes cache line on every access,
+ *     stride 1024 touches a new 4 KB page on every access</li>
+ *     <li>randomGather - independent random reads, CPU can keep several cache misses in flight</li>
+ *     <li>pointerChasing - linked list stored as 'next' indexes in a single random cycle, every load depends
+ *     on the previous one, so this is the pure memory latency</li>
+ * </ul>
+ *
+ * Every benchmark invocation does exactly ACCESSES_PER_OP reads, so the score is reported as ns per single access.
+ * All patterns read the same int[] array, so the working set size is exactly 'sizeKb'.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class MemoryAccessPatternBenchmark {
+
+    private static final int ACCESSES_PER_OP = 1 << 16;
+
+    @State(Scope.Thread)
+    public static class WorkingSetState {
+
+        /**
+         * Working set size in KB, should be a power of 2.
+         */
+        @Param({"16", "128", "1024", "8192", "65536", "1048576"})
+        int sizeKb;
+
+        /**
+         * Each cell contains the index of the next cell, all cells form a single cycle (Sattolo's algorithm).
+         */
+        int[] next;
+
+        int mask;
+
+        int seqPos;
+        int stridePos;
+        int chasePos;
+        int gatherSeed;
+
+        @Setup
+        public void setUp() {
+            final int length = (int) ((long) sizeKb * 1024L / Integer.BYTES);
+            assert Integer.bitCount(length) == 1 : "working set size should be a power of 2";
+
+            next = createSingleCycle(length);
+            mask = length - 1;
+            gatherSeed = 0x9E3779B9;
+        }
+
+        private static int[] createSingleCycle(int length) {
+            int[] arr = new int[length];
+            for (int i = 0; i < length; ++i) {
+                arr[i] = i;
+            }
+
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            for (int i = length - 1; i > 0; --i) {
+                int j = rand.nextInt(i);
+                int temp = arr[i];
+                arr[i] = arr[j];
+                arr[j] = temp;
+            }
+
+            return arr;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StrideState {
+        /**
+         * Stride in ints (4 bytes). Strides not smaller than the working set degenerate into sequential access.
+         */
+        @Param({"1", "4", "16", "64", "256", "1024", "4096"})
+        int stride;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES_PER_OP)
+    public void sequential(WorkingSetState state, Blackhole bh) {
+        final int[] arr = state.next;
+        final int mask = state.mask;
+        final int start = state.seqPos;
+
+        int sum = 0;
+        for (int i = 0; i < ACCESSES_PER_OP; ++i) {
+            sum += arr[(start + i) & mask];
+        }
+
+        state.seqPos = (start + ACCESSES_PER_OP) & mask;
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES_PER_OP)
+    public void strided(WorkingSetState state, StrideState strideState, Blackhole bh) {
+        final int[] arr = state.next;
+        final int mask = state.mask;
+        final int stride = strideState.stride;
+
+        int idx = state.stridePos;
+        int sum = 0;
+        for (int i = 0; i < ACCESSES_PER_OP; ++i) {
+            sum += arr[idx];
+            idx = (idx + stride) & mask;
+
+            if (idx < stride) {
+                // wrapped around, shift by one element, so the next pass touches different cells
+                idx = (idx + 1) & mask;
+            }
+        }
+
+        state.stridePos = idx;
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES_PER_OP)
+    public void randomGather(WorkingSetState state, Blackhole bh) {
+        final int[] arr = state.next;
+        final int mask = state.mask;
+
+        // xorshift32, cheap enough to not dominate even L1 accesses
+        int rand = state.gatherSeed;
+        int sum = 0;
+        for (int i = 0; i < ACCESSES_PER_OP; ++i) {
+            rand ^= rand << 13;
+            rand ^= rand >>> 17;
+            rand ^= rand << 5;
+            sum += arr[rand & mask];
+        }
+
+        state.gatherSeed = rand;
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES_PER_OP)
+    public void pointerChasing(WorkingSetState state, Blackhole bh) {
+        final int[] next = state.next;
+
+        int idx = state.chasePos;
+        for (int i = 0; i < ACCESSES_PER_OP; ++i) {
+            idx = next[idx];
+        }
+
+        state.chasePos = idx;
+        bh.consume(idx);
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar MemoryAccessPatternBenchmark
+     *
+     * To check TLB misses effect, run the same benchmark with huge pages (2 MB pages instead of 4 KB):
+     *
+     *    $ java -jar target/benchmarks.jar MemoryAccessPatternBenchmark -jvmArgsAppend "-XX:+UseTransparentHugePages -XX:+AlwaysPreTouch"
+     *
+     * or with explicitly reserved large pages (requires OS configuration, like 'vm.nr_hugepages' on Linux):
+     *
+     *    $ java -jar target/benchmarks.jar MemoryAccessPatternBenchmark -jvmArgsAppend "-XX:+UseLargePages -XX:+AlwaysPreTouch"
+     *
+     * From IDE, the same can be done with '-Dpages=thp' or '-Dpages=large' system property.
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder opt =
+                new OptionsBuilder()
+                        .include(MemoryAccessPatternBenchmark.class.getSimpleName());
+
+        String pages = System.getProperty("pages", "");
+
+        if ("thp".equals(pages)) {
+            opt.jvmArgsAppend("-XX:+UseTransparentHugePages", "-XX:+AlwaysPreTouch");
+        }
+        else if ("large".equals(pages)) {
+            opt.jvmArgsAppend("-XX:+UseLargePages", "-XX:+AlwaysPreTouch");
+        }
+
+        new Runner(opt.build()).run();
+    }
+}
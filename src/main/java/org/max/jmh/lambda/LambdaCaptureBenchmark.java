@@ -0,0 +1,154 @@
+package org.max.jmh.lambda;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Capturing vs non-capturing lambdas created inside a hot loop.
+ *
+ * Non-capturing lambda is linked once into a singleton, so creating it is free. Capturing lambda
+ * (local variable or 'this') allocates a new object on every evaluation of the lambda expression,
+ * unless escape analysis proves it doesn't escape. '*Escaping' variants pass the lambda to a method that is
+ * never inlined, so the allocation can't be eliminated.
+ *
+ * Run with GC profiler to see 'gc.alloc.rate.norm' (bytes/op), score is reported per single lambda creation + call.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class LambdaCaptureBenchmark {
+
+    private static final int LOOP_SIZE = 1000;
+
+    private final int offset = ThreadLocalRandom.current().nextInt(100);
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_SIZE)
+    public void nonCapturing(Blackhole bh) {
+        int res = 0;
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            IntUnaryOperator op = x -> x + 1;
+            res += op.applyAsInt(i);
+        }
+        bh.consume(res);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_SIZE)
+    public void capturingLocal(Blackhole bh) {
+        int res = 0;
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            final int delta = i;
+            IntUnaryOperator op = x -> x + delta;
+            res += op.applyAsInt(i);
+        }
+        bh.consume(res);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_SIZE)
+    public void capturingThis(Blackhole bh) {
+        int res = 0;
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            IntUnaryOperator op = x -> x + offset;
+            res += op.applyAsInt(i);
+        }
+        bh.consume(res);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_SIZE)
+    public void nonCapturingEscaping(Blackhole bh) {
+        int res = 0;
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            res += applyNotInlined(x -> x + 1, i);
+        }
+        bh.consume(res);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_SIZE)
+    public void capturingLocalEscaping(Blackhole bh) {
+        int res = 0;
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            final int delta = i;
+            res += applyNotInlined(x -> x + delta, i);
+        }
+        bh.consume(res);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_SIZE)
+    public void capturingThisEscaping(Blackhole bh) {
+        int res = 0;
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            res += applyNotInlined(x -> x + offset, i);
+        }
+        bh.consume(res);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_SIZE)
+    public void anonymousClassEscaping(Blackhole bh) {
+        int res = 0;
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            final int delta = i;
+            res += applyNotInlined(new IntUnaryOperator() {
+                @Override
+                public int applyAsInt(int x) {
+                    return x + delta;
+                }
+            }, i);
+        }
+        bh.consume(res);
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static int applyNotInlined(IntUnaryOperator op, int value) {
+        return op.applyAsInt(value);
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS TEST: ====================================
+     *
+     * You can see the benchmark runs as usual.
+     *
+     * You can run this test:
+     *
+     * a) Via the command line:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar LambdaCaptureBenchmark -prof gc
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(LambdaCaptureBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+//            .jvmArgs("-ea")
+            .build();
+
+        new Runner(opt).run();
+    }
+
+}
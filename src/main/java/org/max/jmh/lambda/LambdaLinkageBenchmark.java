@@ -0,0 +1,773 @@
+package org.max.jmh.lambda;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cold start cost of the first invocation of 'count' distinct lambdas, method references and anonymous classes.
+ *
+ * Every lambda expression and method reference is a separate 'invokedynamic' call site, the first call links it
+ * through 'LambdaMetafactory' (spins a hidden class). Every anonymous class is a regular class that has to be
+ * loaded, verified and initialized. 'staticCalls' is the baseline without any linkage.
+ *
+ * Each fork is a fresh JVM and measures exactly one invocation, so many forks are used to get a stable score.
+ * The first lambda in the JVM also pays for the 'java.lang.invoke' infrastructure bootstrap, unless it was
+ * already used by the JMH harness or is in the CDS archive.
+ */
+@Fork(20)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class LambdaLinkageBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+        /**
+         * Number of distinct call sites to link, up to 32.
+         */
+        @Param({"1", "8", "32"})
+        int count;
+    }
+
+    @Benchmark
+    public void staticCalls(BenchmarkState state, Blackhole bh) {
+        bh.consume(callStatic(state.count));
+    }
+
+    @Benchmark
+    public void lambdas(BenchmarkState state, Blackhole bh) {
+        bh.consume(callLambdas(state.count));
+    }
+
+    @Benchmark
+    public void methodReferences(BenchmarkState state, Blackhole bh) {
+        bh.consume(callMethodReferences(state.count));
+    }
+
+    @Benchmark
+    public void anonymousClasses(BenchmarkState state, Blackhole bh) {
+        bh.consume(callAnonymousClasses(state.count));
+    }
+
+    // Below methods intentionally use switch fall through, so exactly 'count' distinct call sites are executed.
+
+    @SuppressWarnings("fallthrough")
+    private static int callStatic(int count) {
+        int res = 0;
+        switch (count) {
+            case 32:
+                res += value31();
+            case 31:
+                res += value30();
+            case 30:
+                res += value29();
+            case 29:
+                res += value28();
+            case 28:
+                res += value27();
+            case 27:
+                res += value26();
+            case 26:
+                res += value25();
+            case 25:
+                res += value24();
+            case 24:
+                res += value23();
+            case 23:
+                res += value22();
+            case 22:
+                res += value21();
+            case 21:
+                res += value20();
+            case 20:
+                res += value19();
+            case 19:
+                res += value18();
+            case 18:
+                res += value17();
+            case 17:
+                res += value16();
+            case 16:
+                res += value15();
+            case 15:
+                res += value14();
+            case 14:
+                res += value13();
+            case 13:
+                res += value12();
+            case 12:
+                res += value11();
+            case 11:
+                res += value10();
+            case 10:
+                res += value9();
+            case 9:
+                res += value8();
+            case 8:
+                res += value7();
+            case 7:
+                res += value6();
+            case 6:
+                res += value5();
+            case 5:
+                res += value4();
+            case 4:
+                res += value3();
+            case 3:
+                res += value2();
+            case 2:
+                res += value1();
+            case 1:
+                res += value0();
+            default:
+                break;
+        }
+        return res;
+    }
+
+    @SuppressWarnings("fallthrough")
+    private static int callLambdas(int count) {
+        int res = 0;
+        switch (count) {
+            case 32:
+                IntSupplier s31 = () -> 31;
+                res += s31.getAsInt();
+            case 31:
+                IntSupplier s30 = () -> 30;
+                res += s30.getAsInt();
+            case 30:
+                IntSupplier s29 = () -> 29;
+                res += s29.getAsInt();
+            case 29:
+                IntSupplier s28 = () -> 28;
+                res += s28.getAsInt();
+            case 28:
+                IntSupplier s27 = () -> 27;
+                res += s27.getAsInt();
+            case 27:
+                IntSupplier s26 = () -> 26;
+                res += s26.getAsInt();
+            case 26:
+                IntSupplier s25 = () -> 25;
+                res += s25.getAsInt();
+            case 25:
+                IntSupplier s24 = () -> 24;
+                res += s24.getAsInt();
+            case 24:
+                IntSupplier s23 = () -> 23;
+                res += s23.getAsInt();
+            case 23:
+                IntSupplier s22 = () -> 22;
+                res += s22.getAsInt();
+            case 22:
+                IntSupplier s21 = () -> 21;
+                res += s21.getAsInt();
+            case 21:
+                IntSupplier s20 = () -> 20;
+                res += s20.getAsInt();
+            case 20:
+                IntSupplier s19 = () -> 19;
+                res += s19.getAsInt();
+            case 19:
+                IntSupplier s18 = () -> 18;
+                res += s18.getAsInt();
+            case 18:
+                IntSupplier s17 = () -> 17;
+                res += s17.getAsInt();
+            case 17:
+                IntSupplier s16 = () -> 16;
+                res += s16.getAsInt();
+            case 16:
+                IntSupplier s15 = () -> 15;
+                res += s15.getAsInt();
+            case 15:
+                IntSupplier s14 = () -> 14;
+                res += s14.getAsInt();
+            case 14:
+                IntSupplier s13 = () -> 13;
+                res += s13.getAsInt();
+            case 13:
+                IntSupplier s12 = () -> 12;
+                res += s12.getAsInt();
+            case 12:
+                IntSupplier s11 = () -> 11;
+                res += s11.getAsInt();
+            case 11:
+                IntSupplier s10 = () -> 10;
+                res += s10.getAsInt();
+            case 10:
+                IntSupplier s9 = () -> 9;
+                res += s9.getAsInt();
+            case 9:
+                IntSupplier s8 = () -> 8;
+                res += s8.getAsInt();
+            case 8:
+                IntSupplier s7 = () -> 7;
+                res += s7.getAsInt();
+            case 7:
+                IntSupplier s6 = () -> 6;
+                res += s6.getAsInt();
+            case 6:
+                IntSupplier s5 = () -> 5;
+                res += s5.getAsInt();
+            case 5:
+                IntSupplier s4 = () -> 4;
+                res += s4.getAsInt();
+            case 4:
+                IntSupplier s3 = () -> 3;
+                res += s3.getAsInt();
+            case 3:
+                IntSupplier s2 = () -> 2;
+                res += s2.getAsInt();
+            case 2:
+                IntSupplier s1 = () -> 1;
+                res += s1.getAsInt();
+            case 1:
+                IntSupplier s0 = () -> 0;
+                res += s0.getAsInt();
+            default:
+                break;
+        }
+        return res;
+    }
+
+    @SuppressWarnings("fallthrough")
+    private static int callMethodReferences(int count) {
+        int res = 0;
+        switch (count) {
+            case 32:
+                IntSupplier s31 = LambdaLinkageBenchmark::value31;
+                res += s31.getAsInt();
+            case 31:
+                IntSupplier s30 = LambdaLinkageBenchmark::value30;
+                res += s30.getAsInt();
+            case 30:
+                IntSupplier s29 = LambdaLinkageBenchmark::value29;
+                res += s29.getAsInt();
+            case 29:
+                IntSupplier s28 = LambdaLinkageBenchmark::value28;
+                res += s28.getAsInt();
+            case 28:
+                IntSupplier s27 = LambdaLinkageBenchmark::value27;
+                res += s27.getAsInt();
+            case 27:
+                IntSupplier s26 = LambdaLinkageBenchmark::value26;
+                res += s26.getAsInt();
+            case 26:
+                IntSupplier s25 = LambdaLinkageBenchmark::value25;
+                res += s25.getAsInt();
+            case 25:
+                IntSupplier s24 = LambdaLinkageBenchmark::value24;
+                res += s24.getAsInt();
+            case 24:
+                IntSupplier s23 = LambdaLinkageBenchmark::value23;
+                res += s23.getAsInt();
+            case 23:
+                IntSupplier s22 = LambdaLinkageBenchmark::value22;
+                res += s22.getAsInt();
+            case 22:
+                IntSupplier s21 = LambdaLinkageBenchmark::value21;
+                res += s21.getAsInt();
+            case 21:
+                IntSupplier s20 = LambdaLinkageBenchmark::value20;
+                res += s20.getAsInt();
+            case 20:
+                IntSupplier s19 = LambdaLinkageBenchmark::value19;
+                res += s19.getAsInt();
+            case 19:
+                IntSupplier s18 = LambdaLinkageBenchmark::value18;
+                res += s18.getAsInt();
+            case 18:
+                IntSupplier s17 = LambdaLinkageBenchmark::value17;
+                res += s17.getAsInt();
+            case 17:
+                IntSupplier s16 = LambdaLinkageBenchmark::value16;
+                res += s16.getAsInt();
+            case 16:
+                IntSupplier s15 = LambdaLinkageBenchmark::value15;
+                res += s15.getAsInt();
+            case 15:
+                IntSupplier s14 = LambdaLinkageBenchmark::value14;
+                res += s14.getAsInt();
+            case 14:
+                IntSupplier s13 = LambdaLinkageBenchmark::value13;
+                res += s13.getAsInt();
+            case 13:
+                IntSupplier s12 = LambdaLinkageBenchmark::value12;
+                res += s12.getAsInt();
+            case 12:
+                IntSupplier s11 = LambdaLinkageBenchmark::value11;
+                res += s11.getAsInt();
+            case 11:
+                IntSupplier s10 = LambdaLinkageBenchmark::value10;
+                res += s10.getAsInt();
+            case 10:
+                IntSupplier s9 = LambdaLinkageBenchmark::value9;
+                res += s9.getAsInt();
+            case 9:
+                IntSupplier s8 = LambdaLinkageBenchmark::value8;
+                res += s8.getAsInt();
+            case 8:
+                IntSupplier s7 = LambdaLinkageBenchmark::value7;
+                res += s7.getAsInt();
+            case 7:
+                IntSupplier s6 = LambdaLinkageBenchmark::value6;
+                res += s6.getAsInt();
+            case 6:
+                IntSupplier s5 = LambdaLinkageBenchmark::value5;
+                res += s5.getAsInt();
+            case 5:
+                IntSupplier s4 = LambdaLinkageBenchmark::value4;
+                res += s4.getAsInt();
+            case 4:
+                IntSupplier s3 = LambdaLinkageBenchmark::value3;
+                res += s3.getAsInt();
+            case 3:
+                IntSupplier s2 = LambdaLinkageBenchmark::value2;
+                res += s2.getAsInt();
+            case 2:
+                IntSupplier s1 = LambdaLinkageBenchmark::value1;
+                res += s1.getAsInt();
+            case 1:
+                IntSupplier s0 = LambdaLinkageBenchmark::value0;
+                res += s0.getAsInt();
+            default:
+                break;
+        }
+        return res;
+    }
+
+    @SuppressWarnings("fallthrough")
+    private static int callAnonymousClasses(int count) {
+        int res = 0;
+        switch (count) {
+            case 32:
+                IntSupplier s31 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 31;
+                    }
+                };
+                res += s31.getAsInt();
+            case 31:
+                IntSupplier s30 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 30;
+                    }
+                };
+                res += s30.getAsInt();
+            case 30:
+                IntSupplier s29 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 29;
+                    }
+                };
+                res += s29.getAsInt();
+            case 29:
+                IntSupplier s28 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 28;
+                    }
+                };
+                res += s28.getAsInt();
+            case 28:
+                IntSupplier s27 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 27;
+                    }
+                };
+                res += s27.getAsInt();
+            case 27:
+                IntSupplier s26 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 26;
+                    }
+                };
+                res += s26.getAsInt();
+            case 26:
+                IntSupplier s25 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 25;
+                    }
+                };
+                res += s25.getAsInt();
+            case 25:
+                IntSupplier s24 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 24;
+                    }
+                };
+                res += s24.getAsInt();
+            case 24:
+                IntSupplier s23 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 23;
+                    }
+                };
+                res += s23.getAsInt();
+            case 23:
+                IntSupplier s22 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 22;
+                    }
+                };
+                res += s22.getAsInt();
+            case 22:
+                IntSupplier s21 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 21;
+                    }
+                };
+                res += s21.getAsInt();
+            case 21:
+                IntSupplier s20 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 20;
+                    }
+                };
+                res += s20.getAsInt();
+            case 20:
+                IntSupplier s19 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 19;
+                    }
+                };
+                res += s19.getAsInt();
+            case 19:
+                IntSupplier s18 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 18;
+                    }
+                };
+                res += s18.getAsInt();
+            case 18:
+                IntSupplier s17 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 17;
+                    }
+                };
+                res += s17.getAsInt();
+            case 17:
+                IntSupplier s16 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 16;
+                    }
+                };
+                res += s16.getAsInt();
+            case 16:
+                IntSupplier s15 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 15;
+                    }
+                };
+                res += s15.getAsInt();
+            case 15:
+                IntSupplier s14 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 14;
+                    }
+                };
+                res += s14.getAsInt();
+            case 14:
+                IntSupplier s13 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 13;
+                    }
+                };
+                res += s13.getAsInt();
+            case 13:
+                IntSupplier s12 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 12;
+                    }
+                };
+                res += s12.getAsInt();
+            case 12:
+                IntSupplier s11 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 11;
+                    }
+                };
+                res += s11.getAsInt();
+            case 11:
+                IntSupplier s10 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 10;
+                    }
+                };
+                res += s10.getAsInt();
+            case 10:
+                IntSupplier s9 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 9;
+                    }
+                };
+                res += s9.getAsInt();
+            case 9:
+                IntSupplier s8 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 8;
+                    }
+                };
+                res += s8.getAsInt();
+            case 8:
+                IntSupplier s7 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 7;
+                    }
+                };
+                res += s7.getAsInt();
+            case 7:
+                IntSupplier s6 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 6;
+                    }
+                };
+                res += s6.getAsInt();
+            case 6:
+                IntSupplier s5 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 5;
+                    }
+                };
+                res += s5.getAsInt();
+            case 5:
+                IntSupplier s4 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 4;
+                    }
+                };
+                res += s4.getAsInt();
+            case 4:
+                IntSupplier s3 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 3;
+                    }
+                };
+                res += s3.getAsInt();
+            case 3:
+                IntSupplier s2 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 2;
+                    }
+                };
+                res += s2.getAsInt();
+            case 2:
+                IntSupplier s1 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 1;
+                    }
+                };
+                res += s1.getAsInt();
+            case 1:
+                IntSupplier s0 = new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        return 0;
+                    }
+                };
+                res += s0.getAsInt();
+            default:
+                break;
+        }
+        return res;
+    }
+
+    private static int value0() {
+        return 0;
+    }
+
+    private static int value1() {
+        return 1;
+    }
+
+    private static int value2() {
+        return 2;
+    }
+
+    private static int value3() {
+        return 3;
+    }
+
+    private static int value4() {
+        return 4;
+    }
+
+    private static int value5() {
+        return 5;
+    }
+
+    private static int value6() {
+        return 6;
+    }
+
+    private static int value7() {
+        return 7;
+    }
+
+    private static int value8() {
+        return 8;
+    }
+
+    private static int value9() {
+        return 9;
+    }
+
+    private static int value10() {
+        return 10;
+    }
+
+    private static int value11() {
+        return 11;
+    }
+
+    private static int value12() {
+        return 12;
+    }
+
+    private static int value13() {
+        return 13;
+    }
+
+    private static int value14() {
+        return 14;
+    }
+
+    private static int value15() {
+        return 15;
+    }
+
+    private static int value16() {
+        return 16;
+    }
+
+    private static int value17() {
+        return 17;
+    }
+
+    private static int value18() {
+        return 18;
+    }
+
+    private static int value19() {
+        return 19;
+    }
+
+    private static int value20() {
+        return 20;
+    }
+
+    private static int value21() {
+        return 21;
+    }
+
+    private static int value22() {
+        return 22;
+    }
+
+    private static int value23() {
+        return 23;
+    }
+
+    private static int value24() {
+        return 24;
+    }
+
+    private static int value25() {
+        return 25;
+    }
+
+    private static int value26() {
+        return 26;
+    }
+
+    private static int value27() {
+        return 27;
+    }
+
+    private static int value28() {
+        return 28;
+    }
+
+    private static int value29() {
+        return 29;
+    }
+
+    private static int value30() {
+        return 30;
+    }
+
+    private static int value31() {
+        return 31;
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS TEST: ====================================
+     *
+     * You can see the benchmark runs as usual.
+     *
+     * You can run this test:
+     *
+     * a) Via the command line:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar LambdaLinkageBenchmark
+     *
+     * To check how much CDS/AOT cache helps, pass the archive to the forked JVMs, like:
+     *    $ java -jar target/benchmarks.jar LambdaLinkageBenchmark -jvmArgsAppend -XX:AOTCache=app.aot
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(LambdaLinkageBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(opt).run();
+    }
+
+}
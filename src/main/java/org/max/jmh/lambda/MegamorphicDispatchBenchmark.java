@@ -0,0 +1,724 @@
+package org.max.jmh.lambda;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link LambdaVsAnonymousBenchmark} only shows that JIT can inline monomorphic call sites.
+ * This benchmark measures single call site with 'polymorphism' different receiver types using different
+ * dispatch mechanisms:
+ *
+ * <ul>
+ *     <li>interfaceDispatch - invokeinterface, itable lookup when megamorphic</li>
+ *     <li>abstractClassDispatch - invokevirtual, vtable lookup when megamorphic</li>
+ *     <li>sealedSwitch - pattern matching 'switch' over sealed interface</li>
+ *     <li>methodHandleConstant - 'static final' MethodHandle to the interface method</li>
+ *     <li>methodHandlePerReceiver - non constant MethodHandle stored next to every receiver</li>
+ *     <li>typeTagSwitch - hand-written 'switch' over int tag stored in a receiver</li>
+ * </ul>
+ *
+ * HotSpot inlines up to 2 receiver types from the call site profile (bimorphic inlining),
+ * 3 and more types make the call site megamorphic.
+ *
+ * Score is reported per single call.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class MegamorphicDispatchBenchmark {
+
+    private static final int RECEIVERS_COUNT = 1024;
+
+    private static final int POLLUTION_ROUNDS = 20_000;
+
+    private static final MethodHandle APPLY = findApply();
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        /**
+         * Number of different receiver types at the call site.
+         */
+        @Param({"1", "2", "3", "8", "32"})
+        int polymorphism;
+
+        Op[] ops;
+        AbstractOp[] abstractOps;
+        SealedOp[] sealedOps;
+        MethodHandle[] handles;
+
+        int pollutionResult;
+
+        @Setup
+        public void setUp() throws Throwable {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            ops = new Op[RECEIVERS_COUNT];
+            abstractOps = new AbstractOp[RECEIVERS_COUNT];
+            sealedOps = new SealedOp[RECEIVERS_COUNT];
+            handles = new MethodHandle[RECEIVERS_COUNT];
+
+            // round-robin over all types, so every type is present, then shuffle to make the order unpredictable
+            AbstractOp[] receivers = new AbstractOp[RECEIVERS_COUNT];
+            for (int i = 0; i < receivers.length; ++i) {
+                receivers[i] = createOp(i % polymorphism);
+            }
+            for (int i = receivers.length - 1; i > 0; --i) {
+                int j = rand.nextInt(i + 1);
+                AbstractOp temp = receivers[i];
+                receivers[i] = receivers[j];
+                receivers[j] = temp;
+            }
+
+            for (int i = 0; i < receivers.length; ++i) {
+                ops[i] = (Op) receivers[i];
+                abstractOps[i] = receivers[i];
+                sealedOps[i] = (SealedOp) receivers[i];
+                handles[i] = APPLY.bindTo(receivers[i]);
+            }
+
+            polluteProfiles();
+        }
+
+        /**
+         * Profile pollution: all kernels are called with every receiver type before the measurement starts,
+         * so the type profile of each call site already contains all 'polymorphism' types when C2 compiles it
+         * and no deoptimization happens in the middle of the measurement.
+         */
+        private void polluteProfiles() throws Throwable {
+            int res = 0;
+            for (int round = 0; round < POLLUTION_ROUNDS / RECEIVERS_COUNT + 1; ++round) {
+                res += callInterface(ops);
+                res += callAbstractClass(abstractOps);
+                res += callSealedSwitch(sealedOps);
+                res += callMethodHandleConstant(ops);
+                res += callMethodHandlePerReceiver(handles);
+                res += callTypeTagSwitch(abstractOps);
+            }
+            pollutionResult = res;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS_COUNT)
+    public void interfaceDispatch(ThreadState state, Blackhole bh) {
+        bh.consume(callInterface(state.ops));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS_COUNT)
+    public void abstractClassDispatch(ThreadState state, Blackhole bh) {
+        bh.consume(callAbstractClass(state.abstractOps));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS_COUNT)
+    public void sealedSwitch(ThreadState state, Blackhole bh) {
+        bh.consume(callSealedSwitch(state.sealedOps));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS_COUNT)
+    public void methodHandleConstant(ThreadState state, Blackhole bh) throws Throwable {
+        bh.consume(callMethodHandleConstant(state.ops));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS_COUNT)
+    public void methodHandlePerReceiver(ThreadState state, Blackhole bh) throws Throwable {
+        bh.consume(callMethodHandlePerReceiver(state.handles));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS_COUNT)
+    public void typeTagSwitch(ThreadState state, Blackhole bh) {
+        bh.consume(callTypeTagSwitch(state.abstractOps));
+    }
+
+    private static int callInterface(Op[] ops) {
+        int res = 0;
+        for (int i = 0; i < ops.length; ++i) {
+            res += ops[i].apply(i);
+        }
+        return res;
+    }
+
+    private static int callAbstractClass(AbstractOp[] ops) {
+        int res = 0;
+        for (int i = 0; i < ops.length; ++i) {
+            res += ops[i].apply(i);
+        }
+        return res;
+    }
+
+    private static int callSealedSwitch(SealedOp[] ops) {
+        int res = 0;
+        for (int i = 0; i < ops.length; ++i) {
+            res += applySealed(ops[i], i);
+        }
+        return res;
+    }
+
+    private static int callMethodHandleConstant(Op[] ops) throws Throwable {
+        int res = 0;
+        for (int i = 0; i < ops.length; ++i) {
+            res += (int) APPLY.invokeExact(ops[i], i);
+        }
+        return res;
+    }
+
+    private static int callMethodHandlePerReceiver(MethodHandle[] handles) throws Throwable {
+        int res = 0;
+        for (int i = 0; i < handles.length; ++i) {
+            res += (int) handles[i].invokeExact(i);
+        }
+        return res;
+    }
+
+    private static int callTypeTagSwitch(AbstractOp[] ops) {
+        int res = 0;
+        for (int i = 0; i < ops.length; ++i) {
+            res += applyByTag(ops[i], i);
+        }
+        return res;
+    }
+
+    private static int applySealed(SealedOp op, int x) {
+        return switch (op) {
+            case Op0 op0 -> x + 0;
+            case Op1 op1 -> x + 1;
+            case Op2 op2 -> x + 2;
+            case Op3 op3 -> x + 3;
+            case Op4 op4 -> x + 4;
+            case Op5 op5 -> x + 5;
+            case Op6 op6 -> x + 6;
+            case Op7 op7 -> x + 7;
+            case Op8 op8 -> x + 8;
+            case Op9 op9 -> x + 9;
+            case Op10 op10 -> x + 10;
+            case Op11 op11 -> x + 11;
+            case Op12 op12 -> x + 12;
+            case Op13 op13 -> x + 13;
+            case Op14 op14 -> x + 14;
+            case Op15 op15 -> x + 15;
+            case Op16 op16 -> x + 16;
+            case Op17 op17 -> x + 17;
+            case Op18 op18 -> x + 18;
+            case Op19 op19 -> x + 19;
+            case Op20 op20 -> x + 20;
+            case Op21 op21 -> x + 21;
+            case Op22 op22 -> x + 22;
+            case Op23 op23 -> x + 23;
+            case Op24 op24 -> x + 24;
+            case Op25 op25 -> x + 25;
+            case Op26 op26 -> x + 26;
+            case Op27 op27 -> x + 27;
+            case Op28 op28 -> x + 28;
+            case Op29 op29 -> x + 29;
+            case Op30 op30 -> x + 30;
+            case Op31 op31 -> x + 31;
+        };
+    }
+
+    private static int applyByTag(AbstractOp op, int x) {
+        return switch (op.tag) {
+            case 0 -> x + 0;
+            case 1 -> x + 1;
+            case 2 -> x + 2;
+            case 3 -> x + 3;
+            case 4 -> x + 4;
+            case 5 -> x + 5;
+            case 6 -> x + 6;
+            case 7 -> x + 7;
+            case 8 -> x + 8;
+            case 9 -> x + 9;
+            case 10 -> x + 10;
+            case 11 -> x + 11;
+            case 12 -> x + 12;
+            case 13 -> x + 13;
+            case 14 -> x + 14;
+            case 15 -> x + 15;
+            case 16 -> x + 16;
+            case 17 -> x + 17;
+            case 18 -> x + 18;
+            case 19 -> x + 19;
+            case 20 -> x + 20;
+            case 21 -> x + 21;
+            case 22 -> x + 22;
+            case 23 -> x + 23;
+            case 24 -> x + 24;
+            case 25 -> x + 25;
+            case 26 -> x + 26;
+            case 27 -> x + 27;
+            case 28 -> x + 28;
+            case 29 -> x + 29;
+            case 30 -> x + 30;
+            case 31 -> x + 31;
+            default -> throw new IllegalStateException("Unknown tag: " + op.tag);
+        };
+    }
+
+    private static AbstractOp createOp(int tag) {
+        return switch (tag) {
+            case 0 -> new Op0();
+            case 1 -> new Op1();
+            case 2 -> new Op2();
+            case 3 -> new Op3();
+            case 4 -> new Op4();
+            case 5 -> new Op5();
+            case 6 -> new Op6();
+            case 7 -> new Op7();
+            case 8 -> new Op8();
+            case 9 -> new Op9();
+            case 10 -> new Op10();
+            case 11 -> new Op11();
+            case 12 -> new Op12();
+            case 13 -> new Op13();
+            case 14 -> new Op14();
+            case 15 -> new Op15();
+            case 16 -> new Op16();
+            case 17 -> new Op17();
+            case 18 -> new Op18();
+            case 19 -> new Op19();
+            case 20 -> new Op20();
+            case 21 -> new Op21();
+            case 22 -> new Op22();
+            case 23 -> new Op23();
+            case 24 -> new Op24();
+            case 25 -> new Op25();
+            case 26 -> new Op26();
+            case 27 -> new Op27();
+            case 28 -> new Op28();
+            case 29 -> new Op29();
+            case 30 -> new Op30();
+            case 31 -> new Op31();
+            default -> throw new IllegalArgumentException("Unknown tag: " + tag);
+        };
+    }
+
+    private static MethodHandle findApply() {
+        try {
+            return MethodHandles.lookup().findVirtual(
+                    Op.class, "apply", MethodType.methodType(int.class, int.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    interface Op {
+        int apply(int x);
+    }
+
+    abstract static class AbstractOp {
+        final int tag;
+
+        AbstractOp(int tag) {
+            this.tag = tag;
+        }
+
+        public abstract int apply(int x);
+    }
+
+    sealed interface SealedOp permits
+            Op0, Op1, Op2, Op3, Op4, Op5, Op6, Op7, Op8, Op9, Op10, Op11, Op12, Op13, Op14, Op15, Op16, Op17,
+            Op18, Op19, Op20, Op21, Op22, Op23, Op24, Op25, Op26, Op27, Op28, Op29, Op30, Op31 {
+    }
+
+    static final class Op0 extends AbstractOp implements Op, SealedOp {
+        Op0() {
+            super(0);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 0;
+        }
+    }
+
+    static final class Op1 extends AbstractOp implements Op, SealedOp {
+        Op1() {
+            super(1);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 1;
+        }
+    }
+
+    static final class Op2 extends AbstractOp implements Op, SealedOp {
+        Op2() {
+            super(2);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 2;
+        }
+    }
+
+    static final class Op3 extends AbstractOp implements Op, SealedOp {
+        Op3() {
+            super(3);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 3;
+        }
+    }
+
+    static final class Op4 extends AbstractOp implements Op, SealedOp {
+        Op4() {
+            super(4);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 4;
+        }
+    }
+
+    static final class Op5 extends AbstractOp implements Op, SealedOp {
+        Op5() {
+            super(5);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 5;
+        }
+    }
+
+    static final class Op6 extends AbstractOp implements Op, SealedOp {
+        Op6() {
+            super(6);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 6;
+        }
+    }
+
+    static final class Op7 extends AbstractOp implements Op, SealedOp {
+        Op7() {
+            super(7);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 7;
+        }
+    }
+
+    static final class Op8 extends AbstractOp implements Op, SealedOp {
+        Op8() {
+            super(8);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 8;
+        }
+    }
+
+    static final class Op9 extends AbstractOp implements Op, SealedOp {
+        Op9() {
+            super(9);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 9;
+        }
+    }
+
+    static final class Op10 extends AbstractOp implements Op, SealedOp {
+        Op10() {
+            super(10);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 10;
+        }
+    }
+
+    static final class Op11 extends AbstractOp implements Op, SealedOp {
+        Op11() {
+            super(11);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 11;
+        }
+    }
+
+    static final class Op12 extends AbstractOp implements Op, SealedOp {
+        Op12() {
+            super(12);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 12;
+        }
+    }
+
+    static final class Op13 extends AbstractOp implements Op, SealedOp {
+        Op13() {
+            super(13);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 13;
+        }
+    }
+
+    static final class Op14 extends AbstractOp implements Op, SealedOp {
+        Op14() {
+            super(14);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 14;
+        }
+    }
+
+    static final class Op15 extends AbstractOp implements Op, SealedOp {
+        Op15() {
+            super(15);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 15;
+        }
+    }
+
+    static final class Op16 extends AbstractOp implements Op, SealedOp {
+        Op16() {
+            super(16);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 16;
+        }
+    }
+
+    static final class Op17 extends AbstractOp implements Op, SealedOp {
+        Op17() {
+            super(17);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 17;
+        }
+    }
+
+    static final class Op18 extends AbstractOp implements Op, SealedOp {
+        Op18() {
+            super(18);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 18;
+        }
+    }
+
+    static final class Op19 extends AbstractOp implements Op, SealedOp {
+        Op19() {
+            super(19);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 19;
+        }
+    }
+
+    static final class Op20 extends AbstractOp implements Op, SealedOp {
+        Op20() {
+            super(20);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 20;
+        }
+    }
+
+    static final class Op21 extends AbstractOp implements Op, SealedOp {
+        Op21() {
+            super(21);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 21;
+        }
+    }
+
+    static final class Op22 extends AbstractOp implements Op, SealedOp {
+        Op22() {
+            super(22);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 22;
+        }
+    }
+
+    static final class Op23 extends AbstractOp implements Op, SealedOp {
+        Op23() {
+            super(23);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 23;
+        }
+    }
+
+    static final class Op24 extends AbstractOp implements Op, SealedOp {
+        Op24() {
+            super(24);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 24;
+        }
+    }
+
+    static final class Op25 extends AbstractOp implements Op, SealedOp {
+        Op25() {
+            super(25);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 25;
+        }
+    }
+
+    static final class Op26 extends AbstractOp implements Op, SealedOp {
+        Op26() {
+            super(26);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 26;
+        }
+    }
+
+    static final class Op27 extends AbstractOp implements Op, SealedOp {
+        Op27() {
+            super(27);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 27;
+        }
+    }
+
+    static final class Op28 extends AbstractOp implements Op, SealedOp {
+        Op28() {
+            super(28);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 28;
+        }
+    }
+
+    static final class Op29 extends AbstractOp implements Op, SealedOp {
+        Op29() {
+            super(29);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 29;
+        }
+    }
+
+    static final class Op30 extends AbstractOp implements Op, SealedOp {
+        Op30() {
+            super(30);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 30;
+        }
+    }
+
+    static final class Op31 extends AbstractOp implements Op, SealedOp {
+        Op31() {
+            super(31);
+        }
+
+        @Override
+        public int apply(int x) {
+            return x + 31;
+        }
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS TEST: ====================================
+     *
+     * You can see the benchmark runs as usual.
+     *
+     * You can run this test:
+     *
+     * a) Via the command line:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar MegamorphicDispatchBenchmark
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(MegamorphicDispatchBenchmark.class.getSimpleName())
+//            .threads(Runtime.getRuntime().availableProcessors())
+//            .jvmArgs("-ea")
+            .build();
+
+        new Runner(opt).run();
+    }
+
+}
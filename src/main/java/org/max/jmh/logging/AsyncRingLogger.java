@@ -0,0 +1,294 @@
+package org.max.jmh.logging;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import org.max.jmh.string.CompiledFormat;
+import org.max.jmh.string.Utf8Writer;
+
+/**
+ * Asynchronous logger with a preallocated ring of events, LMAX Disruptor style. Caller thread only copies
+ * the format and raw arguments (primitives aren't boxed) into the next free event, rendering with
+ * {@link CompiledFormat} and file writes happen on a single background thread.
+ *
+ * <pre>
+ *     logger.log(LogLevel.INFO, ORDER_FORMAT).arg(orderId).arg(price).arg(customerId).publish();
+ * </pre>
+ *
+ * <ul>
+ *     <li>disabled level returns a no-op event, nothing is copied</li>
+ *     <li>producers claim sequences with a single atomic increment, so any number of threads can log</li>
+ *     <li>event becomes visible to the consumer with a release store of its sequence</li>
+ *     <li>full ring makes the caller wait (spin, then yield), nothing is dropped</li>
+ *     <li>consumer renders batches of events into a UTF-8 buffer and writes it to the file when the buffer is
+ *     large enough or the ring is empty</li>
+ * </ul>
+ *
+ * Every claimed event must be published, otherwise the consumer stops at it. Text arguments are rendered later,
+ * so they should be immutable, e.g. Strings.
+ */
+public final class AsyncRingLogger implements AutoCloseable {
+
+    private static final int MAX_ARGS = 8;
+
+    private static final byte LONG_ARG = 1;
+    private static final byte DOUBLE_ARG = 2;
+    private static final byte TEXT_ARG = 3;
+
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    /**
+     * Consumer releases slots to producers at least every 64 events, not only at the end of a batch.
+     */
+    private static final int RELEASE_MASK = 64 - 1;
+
+    private static final int SPINS_BEFORE_YIELD = 100;
+
+    private static final long CONSUMER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50L);
+
+    private static final byte[] NEW_LINE = Utf8Writer.literal("\n");
+    private static final byte[] SPACE = Utf8Writer.literal(" ");
+
+    private static final Event DISABLED = new Event(null);
+
+    private final LogLevel threshold;
+
+    private final Event[] ring;
+    private final int mask;
+
+    /**
+     * published[i] is the sequence of the last published event in slot 'i'.
+     */
+    private final AtomicLongArray published;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * Number of events rendered by the consumer, slot of sequence 's' is free when 's < consumed + capacity'.
+     */
+    private final AtomicLong consumed = new AtomicLong();
+
+    private final FileChannel channel;
+    private final Utf8Writer out = new Utf8Writer(FLUSH_THRESHOLD * 2);
+    private final byte[][] levelNames;
+
+    private final Thread consumer;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity - number of events in the ring, power of 2
+     */
+    public AsyncRingLogger(Path file, LogLevel threshold, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity should be power of 2: " + capacity);
+        }
+
+        this.threshold = threshold;
+        this.mask = capacity - 1;
+
+        this.ring = new Event[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; ++i) {
+            ring[i] = new Event(this);
+            published.set(i, -1L);
+        }
+
+        this.levelNames = new byte[LogLevel.values().length][];
+        for (LogLevel level : LogLevel.values()) {
+            levelNames[level.ordinal()] = Utf8Writer.literal(level.name());
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.consumer = new Thread(this::consume, "async-logger");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.isEnabled(threshold);
+    }
+
+    /**
+     * Claims the next event, waits if the ring is full.
+     */
+    public Event log(LogLevel level, CompiledFormat format) {
+        if (!isEnabled(level)) {
+            return DISABLED;
+        }
+
+        final long sequence = nextSequence.getAndIncrement();
+
+        for (int spins = 0; sequence - ring.length >= consumed.get(); ++spins) {
+            if (spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            }
+            else {
+                Thread.yield();
+            }
+        }
+
+        final Event event = ring[(int) sequence & mask];
+        event.sequence = sequence;
+        event.level = level;
+        event.format = format;
+        event.argsCount = 0;
+        return event;
+    }
+
+    /**
+     * Renders everything published so far, flushes and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(consumer);
+
+        try {
+            consumer.join();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        channel.close();
+    }
+
+    private void consume() {
+        long next = 0L;
+
+        while (true) {
+            final long batchStart = next;
+
+            while (published.get((int) next & mask) == next) {
+                render(ring[(int) next & mask]);
+                ++next;
+
+                if ((next & RELEASE_MASK) == 0) {
+                    consumed.lazySet(next);
+                }
+
+                if (out.size() >= FLUSH_THRESHOLD) {
+                    flush();
+                }
+            }
+
+            if (next != batchStart) {
+                consumed.lazySet(next);
+                continue;
+            }
+
+            // ring is empty
+            if (out.size() != 0) {
+                flush();
+            }
+
+            if (closed && nextSequence.get() == next) {
+                return;
+            }
+
+            LockSupport.parkNanos(CONSUMER_PARK_NANOS);
+        }
+    }
+
+    private void render(Event event) {
+        out.append(levelNames[event.level.ordinal()]).append(SPACE);
+
+        try {
+            CompiledFormat.Renderer renderer = event.format.begin();
+
+            for (int i = 0; i < event.argsCount; ++i) {
+                switch (event.types[i]) {
+                    case LONG_ARG -> renderer.arg(event.values[i]);
+                    case DOUBLE_ARG -> renderer.arg(Double.longBitsToDouble(event.values[i]));
+                    default -> renderer.arg(event.texts[i]);
+                }
+            }
+
+            out.append(renderer.finish());
+        }
+        catch (RuntimeException ex) {
+            // wrong arguments for the format, shouldn't kill the consumer
+            out.append("Can't render log event: " + ex);
+        }
+
+        out.append(NEW_LINE);
+
+        for (int i = 0; i < event.argsCount; ++i) {
+            event.texts[i] = null;
+        }
+    }
+
+    private void flush() {
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(out.buffer(), 0, out.size());
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            out.reset();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Preallocated ring slot, filled by a single producer between {@link #log(LogLevel, CompiledFormat)}
+     * and {@link #publish()}.
+     */
+    public static final class Event {
+
+        private final AsyncRingLogger owner;
+
+        private long sequence;
+        private LogLevel level;
+        private CompiledFormat format;
+
+        private int argsCount;
+        private final byte[] types = new byte[MAX_ARGS];
+        private final long[] values = new long[MAX_ARGS];
+        private final CharSequence[] texts = new CharSequence[MAX_ARGS];
+
+        private Event(AsyncRingLogger owner) {
+            this.owner = owner;
+        }
+
+        public Event arg(long value) {
+            if (owner != null) {
+                values[argsCount] = value;
+                types[argsCount++] = LONG_ARG;
+            }
+            return this;
+        }
+
+        public Event arg(double value) {
+            if (owner != null) {
+                values[argsCount] = Double.doubleToRawLongBits(value);
+                types[argsCount++] = DOUBLE_ARG;
+            }
+            return this;
+        }
+
+        public Event arg(CharSequence value) {
+            if (owner != null) {
+                texts[argsCount] = value;
+                types[argsCount++] = TEXT_ARG;
+            }
+            return this;
+        }
+
+        public void publish() {
+            if (owner != null) {
+                owner.published.lazySet((int) sequence & owner.mask, sequence);
+            }
+        }
+    }
+}
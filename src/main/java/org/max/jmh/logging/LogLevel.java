@@ -0,0 +1,12 @@
+package org.max.jmh.logging;
+
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+
+    public boolean isEnabled(LogLevel threshold) {
+        return compareTo(threshold) >= 0;
+    }
+}
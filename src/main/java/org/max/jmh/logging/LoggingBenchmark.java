@@ -0,0 +1,159 @@
+package org.max.jmh.logging;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.max.jmh.string.CompiledFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Logging the order line from FormattingBenchmark at INFO level, scores are caller thread time per log call.
+ *
+ * <ul>
+ *     <li>eagerFormat - String.format on the caller, then the level check inside the logger</li>
+ *     <li>supplier - lambda capturing the arguments, rendered only for enabled level</li>
+ *     <li>parameterized - format and varargs, rendered only for enabled level</li>
+ *     <li>async - {@link AsyncRingLogger}, raw arguments are copied into a preallocated ring, rendering and file
+ *     writes happen on the background thread</li>
+ * </ul>
+ *
+ * 'threshold' INFO means every message is written to a file, WARN means every message is filtered out, which is
+ * the common case for debug/info lines in production.
+ *
+ * Async caller waits when the ring is full, so with enabled level its average time converges to the background
+ * thread throughput, use sample mode to see the caller latency distribution. Files are recreated every iteration.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class LoggingBenchmark {
+
+    private static final String ORDER_TEMPLATE = "order: %d, price: $ %.2f, customer: %d";
+
+    private static final CompiledFormat ORDER_FORMAT = CompiledFormat.compile(ORDER_TEMPLATE);
+
+    private static final int RING_CAPACITY = 1 << 16;
+
+    @State(Scope.Benchmark)
+    public static class LoggerState {
+
+        @Param({"INFO", "WARN"})
+        LogLevel threshold;
+
+        Path syncFile;
+        Path asyncFile;
+
+        SyncLogger syncLogger;
+        AsyncRingLogger asyncLogger;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            syncFile = Files.createTempFile("sync-logger", ".log");
+            asyncFile = Files.createTempFile("async-logger", ".log");
+
+            syncLogger = new SyncLogger(syncFile, threshold);
+            asyncLogger = new AsyncRingLogger(asyncFile, threshold, RING_CAPACITY);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            syncLogger.close();
+            asyncLogger.close();
+
+            Files.deleteIfExists(syncFile);
+            Files.deleteIfExists(asyncFile);
+        }
+    }
+
+    /**
+     * Arguments change on every call, as in real code, so nothing is constant folded.
+     */
+    @State(Scope.Thread)
+    public static class OrderState {
+        long orderId = 133L;
+        double price = 99.17;
+        long customerId = 177L;
+
+        OrderState next() {
+            ++orderId;
+            price += 0.01;
+            customerId = orderId & 0xFFFF;
+            return this;
+        }
+    }
+
+    @Benchmark
+    public void eagerFormat(LoggerState state, OrderState order) {
+        order.next();
+        state.syncLogger.log(LogLevel.INFO, String.format(ORDER_TEMPLATE, order.orderId, order.price, order.customerId));
+    }
+
+    @Benchmark
+    public void supplier(LoggerState state, OrderState order) {
+        order.next();
+        final long orderId = order.orderId;
+        final double price = order.price;
+        final long customerId = order.customerId;
+
+        state.syncLogger.log(LogLevel.INFO, () -> String.format(ORDER_TEMPLATE, orderId, price, customerId));
+    }
+
+    @Benchmark
+    public void parameterized(LoggerState state, OrderState order) {
+        order.next();
+        state.syncLogger.log(LogLevel.INFO, ORDER_FORMAT, order.orderId, order.price, order.customerId);
+    }
+
+    @Benchmark
+    public void async(LoggerState state, OrderState order) {
+        order.next();
+        state.asyncLogger.log(LogLevel.INFO, ORDER_FORMAT).arg(order.orderId).arg(order.price).arg(order.customerId)
+            .publish();
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar LoggingBenchmark -prof gc
+     *
+     * Caller latency percentiles:
+     *    $ java -jar target/benchmarks.jar LoggingBenchmark -bm sample
+     *
+     * Several logging threads:
+     *    $ java -jar target/benchmarks.jar LoggingBenchmark -t 4
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(LoggingBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
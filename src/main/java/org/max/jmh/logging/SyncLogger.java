@@ -0,0 +1,85 @@
+package org.max.jmh.logging;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import org.max.jmh.string.CompiledFormat;
+
+/**
+ * Classic synchronous logger: message is rendered and written to a buffered file writer under a lock
+ * on the caller thread. Three ways to pass a message:
+ *
+ * <ul>
+ *     <li>ready String - rendered by the caller even if the level is disabled</li>
+ *     <li>{@link Supplier} - rendered only for enabled level, but the lambda capturing arguments is allocated
+ *     on every call</li>
+ *     <li>format and arguments - rendered only for enabled level, varargs array and boxed primitives are allocated
+ *     unless escape analysis removes them</li>
+ * </ul>
+ */
+public final class SyncLogger implements AutoCloseable {
+
+    private final LogLevel threshold;
+    private final Writer out;
+
+    public SyncLogger(Path file, LogLevel threshold) throws IOException {
+        this.threshold = threshold;
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.isEnabled(threshold);
+    }
+
+    public void log(LogLevel level, String message) {
+        if (isEnabled(level)) {
+            write(level, message);
+        }
+    }
+
+    public void log(LogLevel level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            write(level, message.get());
+        }
+    }
+
+    public void log(LogLevel level, CompiledFormat format, Object... args) {
+        if (!isEnabled(level)) {
+            return;
+        }
+
+        CompiledFormat.Renderer renderer = format.begin();
+
+        for (Object arg : args) {
+            if (arg instanceof Double || arg instanceof Float) {
+                renderer.arg(((Number) arg).doubleValue());
+            }
+            else if (arg instanceof Number number) {
+                renderer.arg(number.longValue());
+            }
+            else {
+                renderer.arg(String.valueOf(arg));
+            }
+        }
+
+        write(level, renderer.finish());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private synchronized void write(LogLevel level, CharSequence message) {
+        try {
+            out.append(level.name()).append(' ').append(message).append('\n');
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
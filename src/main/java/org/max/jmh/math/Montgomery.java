@@ -0,0 +1,175 @@
+package org.max.jmh.math;
+
+import java.math.BigInteger;
+
+/**
+ * Modular exponentiation over long with Montgomery multiplication, R = 2^64, for any odd modulus below 2^63.
+ *
+ * Montgomery form of 'a' is 'a * R mod m', the product of two numbers in this form is reduced with two 64x64
+ * multiplications ({@link Math#multiplyHigh(long, long)} for the high half) and a subtraction instead of
+ * a 128-bit division:
+ *
+ * <pre>
+ *     t = a * b                  (128 bits: hi, lo)
+ *     u = lo * m^-1 mod 2^64     (so the low half of u * m equals lo)
+ *     a * b * R^-1 = hi - high(u * m)   (mod m, add m if negative)
+ * </pre>
+ *
+ * Values are converted into Montgomery form once per exponentiation, so the conversion cost is amortized
+ * over ~1.5 multiplications per exponent bit.
+ */
+public final class Montgomery {
+
+    private final long modulus;
+
+    /**
+     * modulus^-1 mod 2^64.
+     */
+    private final long modulusInverse;
+
+    /**
+     * R^2 mod modulus, converts into Montgomery form.
+     */
+    private final long r2;
+
+    /**
+     * R mod modulus, 1 in Montgomery form.
+     */
+    private final long one;
+
+    public Montgomery(long modulus) {
+        if (modulus <= 1 || (modulus & 1) == 0) {
+            throw new IllegalArgumentException("Modulus should be odd and > 1: " + modulus);
+        }
+
+        this.modulus = modulus;
+
+        // Newton iteration, every step doubles the number of correct low bits, m * m = 1 (mod 8) gives 3 bits
+        long inverse = modulus;
+        for (int i = 0; i < 5; ++i) {
+            inverse *= 2 - modulus * inverse;
+        }
+        this.modulusInverse = inverse;
+
+        final BigInteger m = BigInteger.valueOf(modulus);
+        this.one = BigInteger.ONE.shiftLeft(64).mod(m).longValueExact();
+        this.r2 = BigInteger.ONE.shiftLeft(128).mod(m).longValueExact();
+    }
+
+    public long modulus() {
+        return modulus;
+    }
+
+    /**
+     * base ^ exp mod modulus.
+     */
+    public long modPow(long base, long exp) {
+        checkExponent(exp);
+        return fromMontgomery(montgomeryPow(toMontgomery(base), exp));
+    }
+
+    /**
+     * out[i] = bases[i] ^ exp mod modulus, 'out' can be the same array as 'bases'.
+     *
+     * Same loop swap as {@link Powers#pow(long[], int, long[])}: exponent bits outer, block of elements inner,
+     * so the multiplications of independent elements overlap instead of waiting for the previous one
+     * (every Montgomery multiplication is a chain of 3 dependent multiplies).
+     */
+    public void modPow(long[] bases, long exp, long[] out) {
+        checkExponent(exp);
+        Powers.checkLength(bases.length, out.length);
+
+        final long[] prod = new long[Math.min(Powers.BLOCK, bases.length)];
+
+        for (int from = 0; from < bases.length; from += Powers.BLOCK) {
+            final int length = Math.min(Powers.BLOCK, bases.length - from);
+
+            for (int i = 0; i < length; ++i) {
+                prod[i] = toMontgomery(bases[from + i]);
+                out[from + i] = one;
+            }
+
+            for (long e = exp; e != 0; e >>>= 1) {
+                if ((e & 1) != 0) {
+                    for (int i = 0; i < length; ++i) {
+                        out[from + i] = multiply(out[from + i], prod[i]);
+                    }
+                }
+
+                if (e != 1) {
+                    for (int i = 0; i < length; ++i) {
+                        prod[i] = multiply(prod[i], prod[i]);
+                    }
+                }
+            }
+
+            for (int i = 0; i < length; ++i) {
+                out[from + i] = fromMontgomery(out[from + i]);
+            }
+        }
+    }
+
+    /**
+     * out[i] = bases[i] ^ exps[i] mod modulus.
+     */
+    public void modPow(long[] bases, long[] exps, long[] out) {
+        Powers.checkLength(bases.length, exps.length);
+        Powers.checkLength(bases.length, out.length);
+
+        for (int i = 0; i < bases.length; ++i) {
+            out[i] = modPow(bases[i], exps[i]);
+        }
+    }
+
+    private long montgomeryPow(long base, long exp) {
+        long prod = base;
+        long res = one;
+
+        while (exp != 0) {
+            if ((exp & 1) != 0) {
+                res = multiply(res, prod);
+            }
+            prod = multiply(prod, prod);
+            exp >>>= 1;
+        }
+
+        return res;
+    }
+
+    /**
+     * Any long, negative values are taken mod modulus, same as {@link Math#floorMod(long, long)}.
+     */
+    long toMontgomery(long value) {
+        return multiply(Math.floorMod(value, modulus), r2);
+    }
+
+    long fromMontgomery(long value) {
+        return reduce(0L, value);
+    }
+
+    /**
+     * a * b * R^-1 mod modulus, 'a' and 'b' should be in [0, modulus).
+     */
+    long multiply(long a, long b) {
+        return reduce(Math.multiplyHigh(a, b), a * b);
+    }
+
+    /**
+     * (hi * 2^64 + lo) * R^-1 mod modulus, 'hi' should be in [0, modulus).
+     */
+    private long reduce(long hi, long lo) {
+        final long u = lo * modulusInverse;
+
+        // unsigned high half of u * modulus, modulus is positive, so only the sign of u needs the correction
+        final long uHigh = Math.multiplyHigh(u, modulus) + ((u >> 63) & modulus);
+
+        final long res = hi - uHigh;
+        return res < 0 ? res + modulus : res;
+    }
+
+    private static void checkExponent(long exp) {
+        if (exp < 0) {
+            throw new IllegalArgumentException("Negative exponent: " + exp);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package org.max.jmh.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Element-wise math over double arrays with own polynomial approximations written in plain Vector API arithmetic
+ * (FMA, shifts), no JDK math stubs involved. Needs '--add-modules=jdk.incubator.vector'.
+ *
+ * Every function reduces the argument to a small range and evaluates a truncated series with Horner's scheme:
+ * <ul>
+ *     <li>exp - x = k * ln2 + r, |r| <= ln2 / 2, Taylor series up to r^13, result is scaled by 2^k via exponent
+ *     bits. Max error: 1 ulp for |x| <= 708</li>
+ *     <li>log - x = 2^e * m, m in [sqrt(2) / 2, sqrt(2)), log(m) = 2 * atanh((m - 1) / (m + 1)) series up to
+ *     the 23rd power, m - 1 is exact and kept apart from the rounded series. Max error: 1 ulp for positive
+ *     normal x</li>
+ *     <li>pow - exp(y * log(x)), log error is multiplied by y, so the error grows with |y * log(x)|: 2 ulps for
+ *     |y * log(x)| < 1, up to ~ 2.5 * |y * log(x)| ulps above, e.g. 32 ulps for |y * log(x)| near 18</li>
+ *     <li>sqrt - exponent bits halving as the initial guess, then 4 Newton iterations. Max error: 1 ulp, it's here
+ *     to show that hardware sqrt can't be beaten, not to be used</li>
+ *     <li>sin - x = k * pi + r, |r| <= pi / 2, pi is split into 3 parts (Cody-Waite), so r is exact for
+ *     |x| <= 1e5, Taylor series up to r^23. Max error: 2 ulps</li>
+ * </ul>
+ *
+ * Errors are measured against {@link StrictMath} on 4M random arguments from the ranges above. Vectors with at
+ * least one lane outside the range (including NaN, infinities, zeros and subnormals) and the tail that doesn't fill
+ * a whole vector are computed with Math.*, so special values follow Math semantics. All methods allow 'out' to be
+ * one of the inputs.
+ */
+public final class PolynomialMath {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * 1.5 * 2^52, adding it rounds a double to an integer, the integer ends up in the low bits of the sum.
+     */
+    private static final double ROUND_MAGIC = 0x1.8p52;
+    private static final long ROUND_MAGIC_BITS = Double.doubleToRawLongBits(ROUND_MAGIC);
+
+    private static final long EXPONENT_BIAS = 1023L;
+    private static final int MANTISSA_BITS = 52;
+    private static final long MANTISSA_MASK = (1L << MANTISSA_BITS) - 1;
+    private static final long ONE_BITS = Double.doubleToRawLongBits(1.0);
+
+    private static final double LOG2_E = 1.4426950408889634;
+
+    /**
+     * ln2 split into high part with trailing zero bits and the rest, k * LN2_HI is exact.
+     */
+    private static final double LN2_HI = 6.93147180369123816490e-01;
+    private static final double LN2_LO = 1.90821492927058770002e-10;
+
+    private static final double SQRT_2 = 1.4142135623730951;
+
+    private static final double INV_PI = 0.3183098861837907;
+
+    /**
+     * pi = PI_A + PI_B + PI_C, PI_A and PI_B have 28 significant bits, so k * PI_A and k * PI_B are exact
+     * for k < 2^25.
+     */
+    private static final double PI_A = 3.141592651605606;
+    private static final double PI_B = 1.9841871479187034e-09;
+    private static final double PI_C = 1.1442377452219664e-17;
+
+    /**
+     * Beyond that e^x is not a normal double (or 2^k doesn't fit into the exponent bits).
+     */
+    private static final double EXP_MAX_ARG = 708.0;
+
+    private static final double SIN_MAX_ARG = 1e5;
+
+    /**
+     * 1 / n!, n = 0..13
+     */
+    private static final double[] EXP_COEFFS = new double[14];
+
+    /**
+     * 1 / (2n + 1), n = 1..11
+     */
+    private static final double[] LOG_COEFFS = new double[11];
+
+    /**
+     * (-1)^n / (2n + 1)!, n = 1..11
+     */
+    private static final double[] SIN_COEFFS = new double[11];
+
+    static {
+        double factorial = 1.0;
+        for (int n = 0; n < EXP_COEFFS.length; ++n) {
+            factorial *= Math.max(n, 1);
+            EXP_COEFFS[n] = 1.0 / factorial;
+        }
+
+        for (int n = 1; n <= LOG_COEFFS.length; ++n) {
+            LOG_COEFFS[n - 1] = 1.0 / (2 * n + 1);
+        }
+
+        factorial = 1.0;
+        for (int n = 1; n <= SIN_COEFFS.length; ++n) {
+            factorial *= (2 * n) * (2 * n + 1);
+            SIN_COEFFS[n - 1] = ((n & 1) == 0 ? 1.0 : -1.0) / factorial;
+        }
+    }
+
+    private PolynomialMath() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    public static void exp(double[] in, double[] out) {
+        Powers.checkLength(in.length, out.length);
+
+        int i = 0;
+        for (final int bound = SPECIES.loopBound(in.length); i < bound; i += SPECIES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, in, i);
+
+            if (x.abs().compare(VectorOperators.LE, EXP_MAX_ARG).allTrue()) {
+                exp(x).intoArray(out, i);
+            }
+            else {
+                for (int j = i; j < i + SPECIES.length(); ++j) {
+                    out[j] = Math.exp(in[j]);
+                }
+            }
+        }
+
+        for (; i < in.length; ++i) {
+            out[i] = Math.exp(in[i]);
+        }
+    }
+
+    public static void log(double[] in, double[] out) {
+        Powers.checkLength(in.length, out.length);
+
+        int i = 0;
+        for (final int bound = SPECIES.loopBound(in.length); i < bound; i += SPECIES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, in, i);
+
+            if (isPositiveNormal(x)) {
+                log(x).intoArray(out, i);
+            }
+            else {
+                for (int j = i; j < i + SPECIES.length(); ++j) {
+                    out[j] = Math.log(in[j]);
+                }
+            }
+        }
+
+        for (; i < in.length; ++i) {
+            out[i] = Math.log(in[i]);
+        }
+    }
+
+    /**
+     * out[i] = base[i] ^ exp[i]
+     */
+    public static void pow(double[] base, double[] exp, double[] out) {
+        Powers.checkLength(base.length, exp.length);
+        Powers.checkLength(base.length, out.length);
+
+        int i = 0;
+        for (final int bound = SPECIES.loopBound(base.length); i < bound; i += SPECIES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, base, i);
+
+            if (isPositiveNormal(x)) {
+                final DoubleVector power = log(x).mul(DoubleVector.fromArray(SPECIES, exp, i));
+
+                if (power.abs().compare(VectorOperators.LE, EXP_MAX_ARG).allTrue()) {
+                    exp(power).intoArray(out, i);
+                    continue;
+                }
+            }
+
+            for (int j = i; j < i + SPECIES.length(); ++j) {
+                out[j] = Math.pow(base[j], exp[j]);
+            }
+        }
+
+        for (; i < base.length; ++i) {
+            out[i] = Math.pow(base[i], exp[i]);
+        }
+    }
+
+    public static void sqrt(double[] in, double[] out) {
+        Powers.checkLength(in.length, out.length);
+
+        int i = 0;
+        for (final int bound = SPECIES.loopBound(in.length); i < bound; i += SPECIES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, in, i);
+
+            if (isPositiveNormal(x)) {
+                sqrt(x).intoArray(out, i);
+            }
+            else {
+                for (int j = i; j < i + SPECIES.length(); ++j) {
+                    out[j] = Math.sqrt(in[j]);
+                }
+            }
+        }
+
+        for (; i < in.length; ++i) {
+            out[i] = Math.sqrt(in[i]);
+        }
+    }
+
+    public static void sin(double[] in, double[] out) {
+        Powers.checkLength(in.length, out.length);
+
+        int i = 0;
+        for (final int bound = SPECIES.loopBound(in.length); i < bound; i += SPECIES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, in, i);
+
+            if (x.abs().compare(VectorOperators.LE, SIN_MAX_ARG).allTrue()) {
+                sin(x).intoArray(out, i);
+            }
+            else {
+                for (int j = i; j < i + SPECIES.length(); ++j) {
+                    out[j] = Math.sin(in[j]);
+                }
+            }
+        }
+
+        for (; i < in.length; ++i) {
+            out[i] = Math.sin(in[i]);
+        }
+    }
+
+    /**
+     * |x| <= EXP_MAX_ARG
+     */
+    private static DoubleVector exp(DoubleVector x) {
+        final DoubleVector rounded = x.fma(LOG2_E, ROUND_MAGIC);
+        final DoubleVector k = rounded.sub(ROUND_MAGIC);
+
+        // r = x - k * ln2 in 2 steps, k * LN2_HI is exact
+        final DoubleVector r = k.fma(DoubleVector.broadcast(SPECIES, -LN2_HI), x).add(k.mul(-LN2_LO));
+
+        DoubleVector poly = DoubleVector.broadcast(SPECIES, EXP_COEFFS[EXP_COEFFS.length - 1]);
+        for (int n = EXP_COEFFS.length - 2; n >= 0; --n) {
+            poly = poly.fma(r, DoubleVector.broadcast(SPECIES, EXP_COEFFS[n]));
+        }
+
+        // 2^k: k + bias goes straight into the exponent bits
+        final DoubleVector scale = rounded.reinterpretAsLongs()
+            .sub(ROUND_MAGIC_BITS - EXPONENT_BIAS)
+            .lanewise(VectorOperators.LSHL, MANTISSA_BITS)
+            .reinterpretAsDoubles();
+
+        return poly.mul(scale);
+    }
+
+    /**
+     * Positive normal x.
+     */
+    private static DoubleVector log(DoubleVector x) {
+        final LongVector bits = x.reinterpretAsLongs();
+
+        DoubleVector exponent = (DoubleVector) bits.lanewise(VectorOperators.LSHR, MANTISSA_BITS)
+            .sub(EXPONENT_BIAS)
+            .convert(VectorOperators.L2D, 0);
+
+        // mantissa with the exponent of 1.0, m in [1, 2)
+        DoubleVector m = bits.and(MANTISSA_MASK).or(ONE_BITS).reinterpretAsDoubles();
+
+        final VectorMask<Double> large = m.compare(VectorOperators.GT, SQRT_2);
+        m = m.mul(DoubleVector.broadcast(SPECIES, 0.5), large);
+        exponent = exponent.add(DoubleVector.broadcast(SPECIES, 1.0), large);
+
+        // log(m) = 2 * atanh(f) = 2f + f * R, 2f = g - f * g, g is exact, so only the small correction is rounded
+        final DoubleVector g = m.sub(1.0);
+        final DoubleVector f = g.div(m.add(1.0));
+        final DoubleVector f2 = f.mul(f);
+
+        DoubleVector poly = DoubleVector.broadcast(SPECIES, LOG_COEFFS[LOG_COEFFS.length - 1]);
+        for (int n = LOG_COEFFS.length - 2; n >= 0; --n) {
+            poly = poly.fma(f2, DoubleVector.broadcast(SPECIES, LOG_COEFFS[n]));
+        }
+
+        final DoubleVector rest = f2.add(f2).mul(poly);
+        final DoubleVector logM = f.fma(rest.sub(g), g);
+
+        return exponent.fma(DoubleVector.broadcast(SPECIES, LN2_HI),
+                            exponent.fma(DoubleVector.broadcast(SPECIES, LN2_LO), logM));
+    }
+
+    /**
+     * Positive normal x.
+     */
+    private static DoubleVector sqrt(DoubleVector x) {
+        // halving the biased exponent gives sqrt with a few correct bits, every iteration doubles them
+        DoubleVector y = x.reinterpretAsLongs()
+            .lanewise(VectorOperators.LSHR, 1)
+            .add(ONE_BITS >>> 1)
+            .reinterpretAsDoubles();
+
+        for (int it = 0; it < 4; ++it) {
+            y = y.add(x.div(y)).mul(0.5);
+        }
+
+        return y;
+    }
+
+    /**
+     * |x| <= SIN_MAX_ARG
+     */
+    private static DoubleVector sin(DoubleVector x) {
+        final DoubleVector rounded = x.fma(INV_PI, ROUND_MAGIC);
+        final DoubleVector k = rounded.sub(ROUND_MAGIC);
+
+        DoubleVector r = k.fma(DoubleVector.broadcast(SPECIES, -PI_A), x);
+        r = k.fma(DoubleVector.broadcast(SPECIES, -PI_B), r);
+        r = k.fma(DoubleVector.broadcast(SPECIES, -PI_C), r);
+
+        final DoubleVector r2 = r.mul(r);
+
+        DoubleVector poly = DoubleVector.broadcast(SPECIES, SIN_COEFFS[SIN_COEFFS.length - 1]);
+        for (int n = SIN_COEFFS.length - 2; n >= 0; --n) {
+            poly = poly.fma(r2, DoubleVector.broadcast(SPECIES, SIN_COEFFS[n]));
+        }
+
+        final DoubleVector sinR = r.mul(r2).fma(poly, r);
+
+        // sin(k * pi + r) = (-1)^k * sin(r), parity of k is the lowest bit of the rounded sum
+        final LongVector sign = rounded.reinterpretAsLongs().lanewise(VectorOperators.LSHL, 63);
+        return sinR.reinterpretAsLongs().lanewise(VectorOperators.XOR, sign).reinterpretAsDoubles();
+    }
+
+    /**
+     * All lanes are positive normal numbers, false for NaN.
+     */
+    private static boolean isPositiveNormal(DoubleVector x) {
+        return x.compare(VectorOperators.GE, Double.MIN_NORMAL)
+            .and(x.compare(VectorOperators.LE, Double.MAX_VALUE))
+            .allTrue();
+    }
+}
@@ -0,0 +1,229 @@
+package org.max.jmh.math;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Whole arrays raised to a power, unlike {@link PowerBenchmark} every element is a different value, so nothing
+ * is constant folded and memory bandwidth matters for big batches. Scores are per whole batch.
+ *
+ * <ul>
+ *     <li>mathPow / powerQuickIterative / batchPow - double[] to a fixed power: {@link Math#pow(double, double)}
+ *     per element, square-and-multiply per element, {@link Powers#pow(double[], int, double[])}</li>
+ *     <li>longPowScalar / longPowBatch - same for long[], wrapping multiplication</li>
+ *     <li>bigIntegerModPow / montgomeryScalar / montgomeryBatch - long[] to a fixed power modulo the Mersenne
+ *     prime 2^61 - 1: {@link BigInteger#modPow(BigInteger, BigInteger)} per element, {@link Montgomery} per
+ *     element, {@link Montgomery#modPow(long[], long, long[])}</li>
+ * </ul>
+ *
+ * 'bigIntegerModPow' takes tens of seconds per 10M batch with 61-bit exponents, run it with smaller batches
+ * or be patient.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class PowerBatchBenchmark {
+
+    private static final long MERSENNE_61 = (1L << 61) - 1;
+
+    @State(Scope.Thread)
+    public static class DoubleBatchState {
+
+        @Param({"1000", "1000000", "10000000"})
+        int batchSize;
+
+        @Param({"3", "113"})
+        int exp;
+
+        double[] values;
+        double[] out;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            // 2^113 is still far from overflow
+            values = new double[batchSize];
+            for (int i = 0; i < batchSize; ++i) {
+                values[i] = rand.nextDouble(0.5, 2.0);
+            }
+            out = new double[batchSize];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LongBatchState {
+
+        @Param({"1000", "1000000", "10000000"})
+        int batchSize;
+
+        @Param({"3", "113"})
+        int exp;
+
+        long[] values;
+        long[] out;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            values = new long[batchSize];
+            for (int i = 0; i < batchSize; ++i) {
+                values[i] = rand.nextLong();
+            }
+            out = new long[batchSize];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ModPowState {
+
+        @Param({"1000", "1000000", "10000000"})
+        int batchSize;
+
+        /**
+         * 17 bits - RSA-like public exponent, 61 bits - full size exponent, e.g. Fermat test or inverse.
+         */
+        @Param({"17", "61"})
+        int exponentBits;
+
+        long[] bases;
+        long[] out;
+        long exp;
+
+        Montgomery montgomery;
+        BigInteger bigModulus;
+        BigInteger bigExp;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            bases = new long[batchSize];
+            for (int i = 0; i < batchSize; ++i) {
+                bases[i] = rand.nextLong(MERSENNE_61);
+            }
+            out = new long[batchSize];
+
+            final long highBit = 1L << (exponentBits - 1);
+            exp = highBit | (rand.nextLong() & (highBit - 1));
+
+            montgomery = new Montgomery(MERSENNE_61);
+            bigModulus = BigInteger.valueOf(MERSENNE_61);
+            bigExp = BigInteger.valueOf(exp);
+        }
+    }
+
+    @Benchmark
+    public double[] mathPow(DoubleBatchState state) {
+        final double[] values = state.values;
+        final double[] out = state.out;
+
+        for (int i = 0; i < values.length; ++i) {
+            out[i] = Math.pow(values[i], state.exp);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] powerQuickIterative(DoubleBatchState state) {
+        final double[] values = state.values;
+        final double[] out = state.out;
+
+        for (int i = 0; i < values.length; ++i) {
+            out[i] = Powers.pow(values[i], state.exp);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] batchPow(DoubleBatchState state) {
+        Powers.pow(state.values, state.exp, state.out);
+        return state.out;
+    }
+
+    @Benchmark
+    public long[] longPowScalar(LongBatchState state) {
+        final long[] values = state.values;
+        final long[] out = state.out;
+
+        for (int i = 0; i < values.length; ++i) {
+            out[i] = Powers.pow(values[i], state.exp);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long[] longPowBatch(LongBatchState state) {
+        Powers.pow(state.values, state.exp, state.out);
+        return state.out;
+    }
+
+    @Benchmark
+    public long[] bigIntegerModPow(ModPowState state) {
+        final long[] bases = state.bases;
+        final long[] out = state.out;
+
+        for (int i = 0; i < bases.length; ++i) {
+            out[i] = BigInteger.valueOf(bases[i]).modPow(state.bigExp, state.bigModulus).longValue();
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long[] montgomeryScalar(ModPowState state) {
+        final long[] bases = state.bases;
+        final long[] out = state.out;
+
+        for (int i = 0; i < bases.length; ++i) {
+            out[i] = state.montgomery.modPow(bases[i], state.exp);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long[] montgomeryBatch(ModPowState state) {
+        state.montgomery.modPow(state.bases, state.exp, state.out);
+        return state.out;
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar PowerBatchBenchmark
+     *
+     * Modular exponentiation only, without the slow 10M BigInteger batch:
+     *    $ java -jar target/benchmarks.jar "PowerBatchBenchmark.(bigInteger|montgomery)" -p batchSize=1000,1000000
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(PowerBatchBenchmark.class.getSimpleName())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
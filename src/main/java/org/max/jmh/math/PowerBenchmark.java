@@ -25,6 +25,8 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
  * PowerBenchmark.powerQuickRec         avgt   20   9.220 ±  0.585  ns/op
  * PowerBenchmark.powerSlow             avgt   20  30.280 ± 18.679  ns/op
  * PowerBenchmark.powerStandardLibrary  avgt   20  26.755 ±  2.610  ns/op
+ *
+ * Whole arrays and modular exponentiation: {@link PowerBatchBenchmark}.
  */
 @Fork(2)
 @BenchmarkMode(Mode.AverageTime)
@@ -0,0 +1,172 @@
+package org.max.jmh.math;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Cache of {@link Math#pow(double, double)} results for integer exponents, e.g. decay factors 'rate ^ ticks',
+ * returns exactly the same values as Math.pow.
+ *
+ * <ul>
+ *     <li>table - bases known upfront get a precomputed row of powers for exponents [0, maxTableExponent],
+ *     read-only after construction, lookup is a base search plus an array read</li>
+ *     <li>memo - every other (base, exp) pair goes into a bounded direct-mapped map of primitives, a new pair
+ *     overwrites whatever was in its slot, so memory never grows and nothing is allocated</li>
+ * </ul>
+ *
+ * Memo slots are seqlocks: 'version' is odd while a writer fills the slot, readers check that the version is even
+ * and didn't change while they read the key and the value. Writers that lose the race for a slot just skip the
+ * store, so any number of threads can use the cache without locks.
+ */
+public final class PowerCache {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Memo slot layout in 'memo': version, base bits, exponent, value bits - 32 bytes, 2 slots per cache line.
+     */
+    private static final int SLOT_LONGS = 4;
+    private static final int VERSION = 0;
+    private static final int BASE = 1;
+    private static final int EXP = 2;
+    private static final int VALUE = 3;
+
+    private static final long MULTIPLIER = 0x9E37_79B9_7F4A_7C15L;
+
+    private static final int NO_ROW = -1;
+
+    /**
+     * Open addressing index of table bases: raw bits of the base -> row in 'table'.
+     */
+    private final long[] tableBases;
+    private final int[] tableRows;
+    private final int tableMask;
+
+    private final int tableExponents;
+    private final double[] table;
+
+    private final long[] memo;
+    private final int memoMask;
+
+    /**
+     * @param bases            - bases with precomputed powers
+     * @param maxTableExponent - max exponent precomputed for every base from 'bases'
+     * @param memoCapacity     - number of memoized pairs, rounded up to the power of 2
+     */
+    public PowerCache(double[] bases, int maxTableExponent, int memoCapacity) {
+        if (maxTableExponent < 0) {
+            throw new IllegalArgumentException("Negative max table exponent: " + maxTableExponent);
+        }
+        if (memoCapacity <= 0) {
+            throw new IllegalArgumentException("Memo capacity should be positive: " + memoCapacity);
+        }
+
+        final int indexCapacity = Integer.highestOneBit(Math.max(bases.length, 1)) << 2;
+        this.tableBases = new long[indexCapacity];
+        this.tableRows = new int[indexCapacity];
+        this.tableMask = indexCapacity - 1;
+        Arrays.fill(tableRows, NO_ROW);
+
+        this.tableExponents = maxTableExponent + 1;
+        this.table = new double[bases.length * tableExponents];
+
+        int rows = 0;
+        for (double base : bases) {
+            final long bits = Double.doubleToLongBits(base);
+            if (tableRow(bits) != NO_ROW) {
+                continue;
+            }
+
+            int idx = (int) mix(bits) & tableMask;
+            while (tableRows[idx] != NO_ROW) {
+                idx = (idx + 1) & tableMask;
+            }
+            tableBases[idx] = bits;
+            tableRows[idx] = rows;
+
+            for (int exp = 0; exp < tableExponents; ++exp) {
+                table[rows * tableExponents + exp] = Math.pow(base, exp);
+            }
+            ++rows;
+        }
+
+        final int slots = Integer.highestOneBit(Math.max(memoCapacity - 1, 1)) << 1;
+        this.memo = new long[slots * SLOT_LONGS];
+        this.memoMask = slots - 1;
+    }
+
+    public double pow(double base, int exp) {
+        // doubleToLongBits: all NaNs are one key, -0.0 and 0.0 are different keys (Math.pow results differ)
+        final long bits = Double.doubleToLongBits(base);
+
+        if (exp >= 0 && exp < tableExponents) {
+            final int row = tableRow(bits);
+            if (row != NO_ROW) {
+                return table[row * tableExponents + exp];
+            }
+        }
+
+        final long hash = mix(bits ^ (exp * MULTIPLIER));
+        final int slot = ((int) (hash >>> 32) & memoMask) * SLOT_LONGS;
+        final long[] memo = this.memo;
+
+        final long version = (long) LONGS.getAcquire(memo, slot + VERSION);
+        if ((version & 1) == 0) {
+            final long cachedBase = memo[slot + BASE];
+            final long cachedExp = memo[slot + EXP];
+            final long cachedValue = memo[slot + VALUE];
+
+            VarHandle.loadLoadFence();
+
+            // version 0 is a slot that was never written, its zero key would match (0.0, 0)
+            if (version != 0 && cachedBase == bits && cachedExp == exp &&
+                (long) LONGS.getOpaque(memo, slot + VERSION) == version) {
+                return Double.longBitsToDouble(cachedValue);
+            }
+        }
+
+        final double value = Math.pow(base, exp);
+        store(slot, version, bits, exp, value);
+        return value;
+    }
+
+    /**
+     * Number of memo slots, for diagnostics only.
+     */
+    public int memoCapacity() {
+        return memoMask + 1;
+    }
+
+    private void store(int slot, long version, long bits, int exp, double value) {
+        if ((version & 1) != 0 || !LONGS.compareAndSet(memo, slot + VERSION, version, version + 1)) {
+            // other writer owns the slot, the cache is lossy anyway
+            return;
+        }
+
+        VarHandle.storeStoreFence();
+
+        memo[slot + BASE] = bits;
+        memo[slot + EXP] = exp;
+        memo[slot + VALUE] = Double.doubleToRawLongBits(value);
+
+        LONGS.setRelease(memo, slot + VERSION, version + 2);
+    }
+
+    private int tableRow(long bits) {
+        int idx = (int) mix(bits) & tableMask;
+
+        while (true) {
+            final int row = tableRows[idx];
+            if (row == NO_ROW || tableBases[idx] == bits) {
+                return row;
+            }
+            idx = (idx + 1) & tableMask;
+        }
+    }
+
+    private static long mix(long value) {
+        final long hash = value * MULTIPLIER;
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,172 @@
+package org.max.jmh.math;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * When does a {@link PowerCache} lookup beat computing the power: stream of (base, exp) queries answered by
+ * {@link Math#pow(double, double)}, square-and-multiply ({@link Powers#pow(double, int)}, 'powerQuickIterative'
+ * from {@link PowerBenchmark}) and the cache.
+ *
+ * 'hitRate' percent of queries are hot pairs: {@link #HOT_BASES} decay factors, half of them with small exponents
+ * (table) and half with exponents up to {@link #MAX_EXPONENT} (memo, 'memoCapacity' / 4 distinct pairs). The rest
+ * are random cold pairs that miss and evict hot memo entries, so the real memo hit rate is a bit lower than
+ * 'hitRate', same as in production.
+ *
+ * 'memoCapacity' changes the memo residency: 4K slots x 32 bytes fit into L2, 64K slots (2MB) don't.
+ * {@link FourThreads} runs everything again with 4 threads sharing the cache.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class PowerCacheBenchmark {
+
+    private static final int QUERIES = 1 << 22;
+    private static final int QUERIES_MASK = QUERIES - 1;
+
+    private static final int BATCH = 1 << 10;
+
+    private static final int HOT_BASES = 16;
+    private static final int MAX_TABLE_EXPONENT = 32;
+    private static final int MAX_EXPONENT = 1000;
+
+    @State(Scope.Benchmark)
+    public static class QueriesState {
+
+        @Param({"0", "50", "90", "100"})
+        int hitRate;
+
+        @Param({"4096", "65536"})
+        int memoCapacity;
+
+        double[] bases = new double[QUERIES];
+        int[] exps = new int[QUERIES];
+
+        PowerCache cache;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            double[] hotBases = new double[HOT_BASES];
+            for (int i = 0; i < HOT_BASES; ++i) {
+                hotBases[i] = 1.0 - rand.nextDouble(0.0001, 0.1);
+            }
+
+            final int hotMemoPairs = memoCapacity / 4;
+            int[] hotMemoExps = new int[hotMemoPairs];
+            for (int i = 0; i < hotMemoPairs; ++i) {
+                hotMemoExps[i] = rand.nextInt(MAX_TABLE_EXPONENT + 1, MAX_EXPONENT + 1);
+            }
+
+            for (int i = 0; i < QUERIES; ++i) {
+                if (rand.nextInt(100) < hitRate) {
+                    if (rand.nextBoolean()) {
+                        bases[i] = hotBases[rand.nextInt(HOT_BASES)];
+                        exps[i] = rand.nextInt(MAX_TABLE_EXPONENT + 1);
+                    }
+                    else {
+                        final int pair = rand.nextInt(hotMemoPairs);
+                        bases[i] = hotBases[pair % HOT_BASES];
+                        exps[i] = hotMemoExps[pair];
+                    }
+                }
+                else {
+                    bases[i] = 1.0 - rand.nextDouble(0.0001, 0.1);
+                    exps[i] = rand.nextInt(MAX_EXPONENT + 1);
+                }
+            }
+
+            cache = new PowerCache(hotBases, MAX_TABLE_EXPONENT, memoCapacity);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CursorState {
+        int idx = ThreadLocalRandom.current().nextInt(QUERIES);
+    }
+
+    /**
+     * 4 threads share one {@link PowerCache} from the Benchmark scoped state: misses of one thread invalidate memo
+     * slots and cache lines read by the others, and writers that lose the slot CAS skip the store.
+     */
+    @Threads(4)
+    public static class FourThreads extends PowerCacheBenchmark {
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void mathPow(QueriesState queries, CursorState cursor, Blackhole bh) {
+        int idx = cursor.idx;
+        for (int i = 0; i < BATCH; ++i, idx = (idx + 1) & QUERIES_MASK) {
+            bh.consume(Math.pow(queries.bases[idx], queries.exps[idx]));
+        }
+        cursor.idx = idx;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void powerQuickIterative(QueriesState queries, CursorState cursor, Blackhole bh) {
+        int idx = cursor.idx;
+        for (int i = 0; i < BATCH; ++i, idx = (idx + 1) & QUERIES_MASK) {
+            bh.consume(Powers.pow(queries.bases[idx], queries.exps[idx]));
+        }
+        cursor.idx = idx;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void powerCache(QueriesState queries, CursorState cursor, Blackhole bh) {
+        int idx = cursor.idx;
+        for (int i = 0; i < BATCH; ++i, idx = (idx + 1) & QUERIES_MASK) {
+            bh.consume(queries.cache.pow(queries.bases[idx], queries.exps[idx]));
+        }
+        cursor.idx = idx;
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar PowerCacheBenchmark
+     *
+     * Single thread only:
+     *    $ java -jar target/benchmarks.jar "PowerCacheBenchmark\.[a-z]"
+     *
+     * Other number of threads:
+     *    $ java -jar target/benchmarks.jar "PowerCacheBenchmark\.[a-z]" -t 8
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(PowerCacheBenchmark.class.getSimpleName())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
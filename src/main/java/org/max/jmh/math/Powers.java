@@ -0,0 +1,164 @@
+package org.max.jmh.math;
+
+/**
+ * Raising whole arrays to a power with square-and-multiply, same algorithm as 'powerQuickIterative' from
+ * {@link PowerBenchmark}.
+ *
+ * Batch methods swap the loops: the outer loop goes over the exponent bits and the inner loop over a block of
+ * {@link #BLOCK} elements. Inner loop has no dependencies between elements, so JIT vectorizes it (double multiply)
+ * or at least keeps several independent multiplications in flight, and the block stays in L1 for all exponent bits
+ * instead of streaming the whole array once per bit.
+ *
+ * Double results are the product of repeated squares, they can differ from {@link Math#pow(double, double)}
+ * by a few ulps for large exponents. Long results wrap around (mod 2^64), same as polynomial hashing.
+ */
+public final class Powers {
+
+    /**
+     * 2 x 8KB of doubles or longs (values and the running squares), fits into L1 together with the output.
+     */
+    static final int BLOCK = 1024;
+
+    private Powers() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    public static double pow(double value, int exp) {
+        checkExponent(exp);
+
+        double prod = value;
+        double res = 1.0;
+
+        while (exp != 0) {
+            if ((exp & 1) != 0) {
+                res *= prod;
+            }
+            prod *= prod;
+            exp >>>= 1;
+        }
+
+        return res;
+    }
+
+    public static long pow(long value, int exp) {
+        checkExponent(exp);
+
+        long prod = value;
+        long res = 1L;
+
+        while (exp != 0) {
+            if ((exp & 1) != 0) {
+                res *= prod;
+            }
+            prod *= prod;
+            exp >>>= 1;
+        }
+
+        return res;
+    }
+
+    /**
+     * out[i] = values[i] ^ exp, 'out' can be the same array as 'values'.
+     */
+    public static void pow(double[] values, int exp, double[] out) {
+        checkExponent(exp);
+        checkLength(values.length, out.length);
+
+        final double[] prod = new double[Math.min(BLOCK, values.length)];
+
+        for (int from = 0; from < values.length; from += BLOCK) {
+            final int length = Math.min(BLOCK, values.length - from);
+
+            System.arraycopy(values, from, prod, 0, length);
+
+            for (int i = 0; i < length; ++i) {
+                out[from + i] = 1.0;
+            }
+
+            for (int e = exp; e != 0; e >>>= 1) {
+                if ((e & 1) != 0) {
+                    for (int i = 0; i < length; ++i) {
+                        out[from + i] *= prod[i];
+                    }
+                }
+
+                // last square is never used
+                if (e != 1) {
+                    for (int i = 0; i < length; ++i) {
+                        prod[i] *= prod[i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * out[i] = values[i] ^ exp mod 2^64, 'out' can be the same array as 'values'.
+     */
+    public static void pow(long[] values, int exp, long[] out) {
+        checkExponent(exp);
+        checkLength(values.length, out.length);
+
+        final long[] prod = new long[Math.min(BLOCK, values.length)];
+
+        for (int from = 0; from < values.length; from += BLOCK) {
+            final int length = Math.min(BLOCK, values.length - from);
+
+            System.arraycopy(values, from, prod, 0, length);
+
+            for (int i = 0; i < length; ++i) {
+                out[from + i] = 1L;
+            }
+
+            for (int e = exp; e != 0; e >>>= 1) {
+                if ((e & 1) != 0) {
+                    for (int i = 0; i < length; ++i) {
+                        out[from + i] *= prod[i];
+                    }
+                }
+
+                if (e != 1) {
+                    for (int i = 0; i < length; ++i) {
+                        prod[i] *= prod[i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * out[i] = values[i] ^ exps[i], exponents differ per element, so every element is a separate loop.
+     */
+    public static void pow(double[] values, int[] exps, double[] out) {
+        checkLength(values.length, exps.length);
+        checkLength(values.length, out.length);
+
+        for (int i = 0; i < values.length; ++i) {
+            out[i] = pow(values[i], exps[i]);
+        }
+    }
+
+    /**
+     * out[i] = values[i] ^ exps[i] mod 2^64.
+     */
+    public static void pow(long[] values, int[] exps, long[] out) {
+        checkLength(values.length, exps.length);
+        checkLength(values.length, out.length);
+
+        for (int i = 0; i < values.length; ++i) {
+            out[i] = pow(values[i], exps[i]);
+        }
+    }
+
+    private static void checkExponent(int exp) {
+        if (exp < 0) {
+            throw new IllegalArgumentException("Negative exponent: " + exp);
+        }
+    }
+
+    static void checkLength(int expected, int actual) {
+        if (expected != actual) {
+            throw new IllegalArgumentException("Arrays length mismatch: %d vs %d".formatted(expected, actual));
+        }
+    }
+}
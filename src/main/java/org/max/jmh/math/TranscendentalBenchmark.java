@@ -0,0 +1,213 @@
+package org.max.jmh.math;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Math functions applied element-wise to a whole array, scores are per whole array.
+ *
+ * <ul>
+ *     <li>math - scalar loop with Math.*, JIT intrinsics (stubs) for exp, log, pow, sin, sqrt instruction</li>
+ *     <li>strictMath - scalar loop with StrictMath.*, fdlibm ported to Java, same results on every platform</li>
+ *     <li>vectorApi - {@link VectorMath}, Vector API lane-wise EXP/LOG/POW/SQRT/SIN</li>
+ *     <li>polynomial - {@link PolynomialMath}, own range reduction and polynomials in Vector API arithmetic,
+ *     see its docs for the ulp error</li>
+ * </ul>
+ *
+ * Arguments are random from ranges typical for scoring models: exp over [-20, 20], log over [1e-3, 1e6],
+ * pow with base in [0.5, 2] and exponent in [-8, 8], sqrt over [0, 1e6], sin over [-100, 100].
+ */
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"}, jvmArgsPrepend = "--add-modules=jdk.incubator.vector")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class TranscendentalBenchmark {
+
+    public enum Function {
+        EXP,
+        LOG,
+        POW,
+        SQRT,
+        SIN;
+
+        double randomArgument(SplittableRandom rand) {
+            return switch (this) {
+                case EXP -> rand.nextDouble(-20.0, 20.0);
+                // log-uniform, every order of magnitude is equally likely
+                case LOG -> Math.pow(10.0, rand.nextDouble(-3.0, 6.0));
+                case POW -> rand.nextDouble(0.5, 2.0);
+                case SQRT -> rand.nextDouble(0.0, 1e6);
+                case SIN -> rand.nextDouble(-100.0, 100.0);
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ArraysState {
+
+        @Param({"1000", "1000000", "10000000"})
+        int size;
+
+        @Param({"EXP", "LOG", "POW", "SQRT", "SIN"})
+        Function function;
+
+        double[] in;
+
+        /**
+         * Exponents for POW.
+         */
+        double[] exp;
+
+        double[] out;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            in = new double[size];
+            exp = new double[size];
+            for (int i = 0; i < size; ++i) {
+                in[i] = function.randomArgument(rand);
+                exp[i] = rand.nextDouble(-8.0, 8.0);
+            }
+
+            out = new double[size];
+        }
+    }
+
+    @Benchmark
+    public double[] math(ArraysState state) {
+        final double[] in = state.in;
+        final double[] out = state.out;
+
+        switch (state.function) {
+            case EXP -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = Math.exp(in[i]);
+                }
+            }
+            case LOG -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = Math.log(in[i]);
+                }
+            }
+            case POW -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = Math.pow(in[i], state.exp[i]);
+                }
+            }
+            case SQRT -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = Math.sqrt(in[i]);
+                }
+            }
+            case SIN -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = Math.sin(in[i]);
+                }
+            }
+        }
+
+        return out;
+    }
+
+    @Benchmark
+    public double[] strictMath(ArraysState state) {
+        final double[] in = state.in;
+        final double[] out = state.out;
+
+        switch (state.function) {
+            case EXP -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = StrictMath.exp(in[i]);
+                }
+            }
+            case LOG -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = StrictMath.log(in[i]);
+                }
+            }
+            case POW -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = StrictMath.pow(in[i], state.exp[i]);
+                }
+            }
+            case SQRT -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = StrictMath.sqrt(in[i]);
+                }
+            }
+            case SIN -> {
+                for (int i = 0; i < in.length; ++i) {
+                    out[i] = StrictMath.sin(in[i]);
+                }
+            }
+        }
+
+        return out;
+    }
+
+    @Benchmark
+    public double[] vectorApi(ArraysState state) {
+        switch (state.function) {
+            case EXP -> VectorMath.exp(state.in, state.out);
+            case LOG -> VectorMath.log(state.in, state.out);
+            case POW -> VectorMath.pow(state.in, state.exp, state.out);
+            case SQRT -> VectorMath.sqrt(state.in, state.out);
+            case SIN -> VectorMath.sin(state.in, state.out);
+        }
+
+        return state.out;
+    }
+
+    @Benchmark
+    public double[] polynomial(ArraysState state) {
+        switch (state.function) {
+            case EXP -> PolynomialMath.exp(state.in, state.out);
+            case LOG -> PolynomialMath.log(state.in, state.out);
+            case POW -> PolynomialMath.pow(state.in, state.exp, state.out);
+            case SQRT -> PolynomialMath.sqrt(state.in, state.out);
+            case SIN -> PolynomialMath.sin(state.in, state.out);
+        }
+
+        return state.out;
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar TranscendentalBenchmark
+     *
+     * Single function:
+     *    $ java -jar target/benchmarks.jar TranscendentalBenchmark -p function=EXP
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(TranscendentalBenchmark.class.getSimpleName())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,81 @@
+package org.max.jmh.math;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Element-wise math over double arrays with Vector API lane-wise operators. Needs
+ * '--add-modules=jdk.incubator.vector'.
+ *
+ * EXP, LOG, POW and SIN are implemented by the JDK (SVML stubs on x86 with AVX, scalar fallback elsewhere),
+ * Vector API spec allows 1 ulp error for them, {@link Math} allows 1 ulp too, but results may differ from Math.*
+ * in the last bit. SQRT is a single instruction and correctly rounded, same as {@link Math#sqrt(double)}.
+ *
+ * Tail that doesn't fill a whole vector is computed with Math.*. All methods allow 'out' to be one of the inputs.
+ */
+public final class VectorMath {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorMath() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    public static void exp(double[] in, double[] out) {
+        lanewise(VectorOperators.EXP, Math::exp, in, out);
+    }
+
+    public static void log(double[] in, double[] out) {
+        lanewise(VectorOperators.LOG, Math::log, in, out);
+    }
+
+    public static void sqrt(double[] in, double[] out) {
+        lanewise(VectorOperators.SQRT, Math::sqrt, in, out);
+    }
+
+    public static void sin(double[] in, double[] out) {
+        lanewise(VectorOperators.SIN, Math::sin, in, out);
+    }
+
+    /**
+     * out[i] = base[i] ^ exp[i]
+     */
+    public static void pow(double[] base, double[] exp, double[] out) {
+        lanewise(VectorOperators.POW, Math::pow, base, exp, out);
+    }
+
+    /**
+     * Operator is a constant at every call site above, so after inlining the vector operation is intrinsified.
+     */
+    private static void lanewise(VectorOperators.Unary op, DoubleUnaryOperator scalarOp, double[] in, double[] out) {
+        Powers.checkLength(in.length, out.length);
+
+        int i = 0;
+        for (final int bound = SPECIES.loopBound(in.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, in, i).lanewise(op).intoArray(out, i);
+        }
+
+        for (; i < in.length; ++i) {
+            out[i] = scalarOp.applyAsDouble(in[i]);
+        }
+    }
+
+    private static void lanewise(VectorOperators.Binary op, DoubleBinaryOperator scalarOp, double[] first,
+                                 double[] second, double[] out) {
+        Powers.checkLength(first.length, second.length);
+        Powers.checkLength(first.length, out.length);
+
+        int i = 0;
+        for (final int bound = SPECIES.loopBound(first.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, first, i).lanewise(op, DoubleVector.fromArray(SPECIES, second, i))
+                .intoArray(out, i);
+        }
+
+        for (; i < first.length; ++i) {
+            out[i] = scalarOp.applyAsDouble(first[i], second[i]);
+        }
+    }
+}
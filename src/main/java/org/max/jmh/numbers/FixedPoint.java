@@ -0,0 +1,174 @@
+package org.max.jmh.numbers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Decimal fixed-point arithmetic over plain longs: a value is stored as 'value * 10^SCALE', e.g. 99.17 is
+ * 99_170_000. Nothing is allocated, values live in long fields and long[] arrays.
+ *
+ * <ul>
+ *     <li>{@link #SCALE} = 6 digits covers prices with 4 decimals, rates like 8.25% and fractional quantities,
+ *     range is +/- 9.2 * 10^12</li>
+ *     <li>every operation is overflow-checked and throws {@link ArithmeticException} instead of wrapping around</li>
+ *     <li>results that need more digits are rounded half-even (banker's rounding), same as
+ *     {@link RoundingMode#HALF_EVEN} for {@link BigDecimal} with the same scale</li>
+ * </ul>
+ *
+ * Multiplication and division need the 128-bit intermediate product, {@link Math#multiplyHigh(long, long)} tells
+ * whether it fits into 64 bits. If it doesn't, multiplication splits the operands into integer and fractional
+ * parts and division goes digit by digit, so everything stays in longs. Only division by a value above
+ * ~9.2 * 10^11 falls back to BigDecimal.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 6;
+
+    /**
+     * 1.0 in fixed point.
+     */
+    public static final long ONE = 1_000_000L;
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+
+    private FixedPoint() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    public static long of(long units) {
+        return Math.multiplyExact(units, ONE);
+    }
+
+    /**
+     * Exact if 'value' has at most {@link #SCALE} decimals, rounded half-even otherwise.
+     */
+    public static long of(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Nearest fixed-point value, ties to even, e.g. 0.1 becomes exactly 0.100000.
+     */
+    public static long of(double value) {
+        final double scaled = Math.rint(value * ONE);
+
+        if (!(Math.abs(scaled) < 0x1p63)) {
+            throw new ArithmeticException("Out of fixed-point range: " + value);
+        }
+        return (long) scaled;
+    }
+
+    public static BigDecimal toBigDecimal(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    public static double toDouble(long value) {
+        return (double) value / ONE;
+    }
+
+    public static String toString(long value) {
+        return toBigDecimal(value).toPlainString();
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Fixed-point value times an integer (not a fixed-point value), e.g. price times number of shares, exact.
+     */
+    public static long multiplyByInteger(long a, long n) {
+        return Math.multiplyExact(a, n);
+    }
+
+    /**
+     * a * b, rounded half-even to {@link #SCALE} digits.
+     */
+    public static long multiply(long a, long b) {
+        final long low = a * b;
+
+        if (Math.multiplyHigh(a, b) == (low >> 63)) {
+            // 'ONE' is a constant, so JIT replaces both divisions with multiplications
+            return roundHalfEven(low / ONE, low % ONE, ONE);
+        }
+
+        // a * b / ONE = (aInt * ONE + aFrac) * (bInt * ONE + bFrac) / ONE
+        //             = aInt * b + aFrac * bInt + aFrac * bFrac / ONE, where |aFrac * bInt| < 2^63
+        final long aInt = a / ONE;
+        final long aFrac = a % ONE;
+        final long bInt = b / ONE;
+        final long bFrac = b % ONE;
+
+        final long fracProduct = aFrac * bFrac;
+        final long quotient = Math.addExact(Math.addExact(Math.multiplyExact(aInt, b), aFrac * bInt),
+                                            fracProduct / ONE);
+
+        return roundHalfEven(quotient, fracProduct % ONE, ONE);
+    }
+
+    /**
+     * a / b, rounded half-even to {@link #SCALE} digits.
+     */
+    public static long divide(long a, long b) {
+        if (b == 0L) {
+            throw new ArithmeticException("Division by zero");
+        }
+
+        final long low = a * ONE;
+
+        if (Math.multiplyHigh(a, ONE) == (low >> 63) && b != -1L && b != Long.MIN_VALUE) {
+            return roundHalfEven(low / b, low % b, b);
+        }
+
+        if (b == Long.MIN_VALUE || Math.abs(b) > Long.MAX_VALUE / 10) {
+            return of(toBigDecimal(a).divide(toBigDecimal(b), SCALE, RoundingMode.HALF_EVEN));
+        }
+
+        // long division, one decimal digit per step: a / b = quotient + remainder / b, |remainder| < |b|
+        long quotient = a / b;
+        long remainder = a % b;
+
+        for (int i = 0; i < SCALE; ++i) {
+            remainder *= 10;
+            quotient = Math.addExact(Math.multiplyExact(quotient, 10), remainder / b);
+            remainder %= b;
+        }
+
+        return roundHalfEven(quotient, remainder, b);
+    }
+
+    /**
+     * Rounds half-even to 'decimals' digits after the point, e.g. tax to cents with 'decimals' = 2.
+     */
+    public static long round(long value, int decimals) {
+        if (decimals < 0 || decimals > SCALE) {
+            throw new IllegalArgumentException("Decimals should be in [0, %d]: %d".formatted(SCALE, decimals));
+        }
+
+        final long unit = POW10[SCALE - decimals];
+        return Math.multiplyExact(roundHalfEven(value / unit, value % unit, unit), unit);
+    }
+
+    /**
+     * Rounds 'quotient + remainder / divisor' to the nearest integer, ties to even. 'remainder' comes from truncating
+     * division, |remainder| < |divisor|, so the result is either 'quotient' or one step towards the remainder sign.
+     *
+     * Branch-free: the remainder is random in money calculations, so a branch would be mispredicted half the time.
+     */
+    private static long roundHalfEven(long quotient, long remainder, long divisor) {
+        final long absRemainder = Math.abs(remainder);
+
+        // |divisor| - 2 * |remainder| without overflow, negative means the remainder is above the half
+        final long distance = (Math.abs(divisor) - absRemainder) - absRemainder;
+
+        // step when above the half, or exactly at the half and the quotient is odd, always 0 for zero remainder
+        final long step = (distance - (quotient & 1L)) >>> 63;
+        final long direction = ((remainder ^ divisor) >> 63) | 1L;
+
+        return Math.addExact(quotient, step * direction);
+    }
+}
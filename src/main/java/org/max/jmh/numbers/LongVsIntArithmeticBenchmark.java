@@ -18,6 +18,8 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
  * Benchmark ints vs longs multiplication.
+ *
+ * Long arithmetic for money (fixed point vs BigDecimal vs double): {@link MoneyBenchmark}.
  */
 @Fork(1)
 @BenchmarkMode(Mode.AverageTime)
@@ -0,0 +1,253 @@
+package org.max.jmh.numbers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Money calculations over {@link #ROWS} order rows (symbol, price with 4 decimals, quantity with 3 decimals) with
+ * double, {@link FixedPoint} (scaled long) and {@link BigDecimal}. Scores and 'gc.alloc.rate.norm' are per row.
+ *
+ * <ul>
+ *     <li>orderBookSum - total notional, sum of price * quantity</li>
+ *     <li>vwap - volume weighted average price per symbol, sum(price * quantity) / sum(quantity)</li>
+ *     <li>tax - for every row tax = notional * 8.25% rounded to cents, gross = notional + tax</li>
+ * </ul>
+ *
+ * Fixed point and BigDecimal round every product half-even to {@link FixedPoint#SCALE} digits, so they give
+ * the same figures to the last digit, double results drift in the last digits.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class MoneyBenchmark {
+
+    private static final int ROWS = 1 << 20;
+
+    private static final int SYMBOLS = 64;
+
+    private static final int CENTS = 2;
+
+    private static final double TAX_RATE_DOUBLE = 0.0825;
+    private static final long TAX_RATE_FIXED = FixedPoint.of(new BigDecimal("0.0825"));
+    private static final BigDecimal TAX_RATE_BIG_DECIMAL = new BigDecimal("0.0825");
+
+    @State(Scope.Thread)
+    public static class RowsState {
+
+        int[] symbols = new int[ROWS];
+
+        double[] pricesDouble = new double[ROWS];
+        double[] quantitiesDouble = new double[ROWS];
+
+        long[] pricesFixed = new long[ROWS];
+        long[] quantitiesFixed = new long[ROWS];
+
+        BigDecimal[] pricesBigDecimal = new BigDecimal[ROWS];
+        BigDecimal[] quantitiesBigDecimal = new BigDecimal[ROWS];
+
+        /**
+         * Output of 'tax', one array per representation, so results are not thrown away.
+         */
+        double[] grossDouble = new double[ROWS];
+        long[] grossFixed = new long[ROWS];
+        BigDecimal[] grossBigDecimal = new BigDecimal[ROWS];
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            for (int i = 0; i < ROWS; ++i) {
+                symbols[i] = rand.nextInt(SYMBOLS);
+
+                // price in [1.0000, 500.0000), quantity in [0.001, 1000.000]
+                final long priceTicks = rand.nextLong(10_000L, 5_000_000L);
+                final long quantityLots = rand.nextLong(1L, 1_000_001L);
+
+                pricesBigDecimal[i] = BigDecimal.valueOf(priceTicks, 4);
+                quantitiesBigDecimal[i] = BigDecimal.valueOf(quantityLots, 3);
+
+                pricesFixed[i] = FixedPoint.of(pricesBigDecimal[i]);
+                quantitiesFixed[i] = FixedPoint.of(quantitiesBigDecimal[i]);
+
+                pricesDouble[i] = pricesBigDecimal[i].doubleValue();
+                quantitiesDouble[i] = quantitiesBigDecimal[i].doubleValue();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double doubleOrderBookSum(RowsState state) {
+        double sum = 0.0;
+        for (int i = 0; i < ROWS; ++i) {
+            sum += state.pricesDouble[i] * state.quantitiesDouble[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long fixedOrderBookSum(RowsState state) {
+        long sum = 0L;
+        for (int i = 0; i < ROWS; ++i) {
+            sum = FixedPoint.add(sum, FixedPoint.multiply(state.pricesFixed[i], state.quantitiesFixed[i]));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BigDecimal bigDecimalOrderBookSum(RowsState state) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < ROWS; ++i) {
+            sum = sum.add(notional(state.pricesBigDecimal[i], state.quantitiesBigDecimal[i]));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double[] doubleVwap(RowsState state) {
+        double[] notionals = new double[SYMBOLS];
+        double[] volumes = new double[SYMBOLS];
+
+        for (int i = 0; i < ROWS; ++i) {
+            final int symbol = state.symbols[i];
+            notionals[symbol] += state.pricesDouble[i] * state.quantitiesDouble[i];
+            volumes[symbol] += state.quantitiesDouble[i];
+        }
+
+        for (int symbol = 0; symbol < SYMBOLS; ++symbol) {
+            notionals[symbol] /= volumes[symbol];
+        }
+        return notionals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long[] fixedVwap(RowsState state) {
+        long[] notionals = new long[SYMBOLS];
+        long[] volumes = new long[SYMBOLS];
+
+        for (int i = 0; i < ROWS; ++i) {
+            final int symbol = state.symbols[i];
+            notionals[symbol] = FixedPoint.add(notionals[symbol],
+                                               FixedPoint.multiply(state.pricesFixed[i], state.quantitiesFixed[i]));
+            volumes[symbol] = FixedPoint.add(volumes[symbol], state.quantitiesFixed[i]);
+        }
+
+        for (int symbol = 0; symbol < SYMBOLS; ++symbol) {
+            notionals[symbol] = FixedPoint.divide(notionals[symbol], volumes[symbol]);
+        }
+        return notionals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BigDecimal[] bigDecimalVwap(RowsState state) {
+        BigDecimal[] notionals = new BigDecimal[SYMBOLS];
+        BigDecimal[] volumes = new BigDecimal[SYMBOLS];
+        for (int symbol = 0; symbol < SYMBOLS; ++symbol) {
+            notionals[symbol] = BigDecimal.ZERO;
+            volumes[symbol] = BigDecimal.ZERO;
+        }
+
+        for (int i = 0; i < ROWS; ++i) {
+            final int symbol = state.symbols[i];
+            notionals[symbol] = notionals[symbol].add(notional(state.pricesBigDecimal[i],
+                                                               state.quantitiesBigDecimal[i]));
+            volumes[symbol] = volumes[symbol].add(state.quantitiesBigDecimal[i]);
+        }
+
+        for (int symbol = 0; symbol < SYMBOLS; ++symbol) {
+            notionals[symbol] = notionals[symbol].divide(volumes[symbol], FixedPoint.SCALE, RoundingMode.HALF_EVEN);
+        }
+        return notionals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double[] doubleTax(RowsState state) {
+        final double[] gross = state.grossDouble;
+
+        for (int i = 0; i < ROWS; ++i) {
+            final double notional = state.pricesDouble[i] * state.quantitiesDouble[i];
+            final double tax = Math.rint(notional * TAX_RATE_DOUBLE * 100.0) / 100.0;
+            gross[i] = notional + tax;
+        }
+        return gross;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long[] fixedTax(RowsState state) {
+        final long[] gross = state.grossFixed;
+
+        for (int i = 0; i < ROWS; ++i) {
+            final long notional = FixedPoint.multiply(state.pricesFixed[i], state.quantitiesFixed[i]);
+            final long tax = FixedPoint.round(FixedPoint.multiply(notional, TAX_RATE_FIXED), CENTS);
+            gross[i] = FixedPoint.add(notional, tax);
+        }
+        return gross;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BigDecimal[] bigDecimalTax(RowsState state) {
+        final BigDecimal[] gross = state.grossBigDecimal;
+
+        for (int i = 0; i < ROWS; ++i) {
+            final BigDecimal notional = notional(state.pricesBigDecimal[i], state.quantitiesBigDecimal[i]);
+            // rounded to 6 digits first and then to cents, exactly as the fixed point version
+            final BigDecimal tax = TAX_RATE_BIG_DECIMAL.multiply(notional)
+                .setScale(FixedPoint.SCALE, RoundingMode.HALF_EVEN)
+                .setScale(CENTS, RoundingMode.HALF_EVEN);
+            gross[i] = notional.add(tax);
+        }
+        return gross;
+    }
+
+    private static BigDecimal notional(BigDecimal price, BigDecimal quantity) {
+        return price.multiply(quantity).setScale(FixedPoint.SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar MoneyBenchmark -prof gc
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(MoneyBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
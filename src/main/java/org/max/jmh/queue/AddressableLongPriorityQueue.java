@@ -0,0 +1,23 @@
+package org.max.jmh.queue;
+
+/**
+ * Priority queue with decrease-key. Every pushed key gets a handle, handle stays valid until its key is popped,
+ * after that the same handle can be reused for a new key.
+ */
+public interface AddressableLongPriorityQueue extends LongPriorityQueue {
+
+    /**
+     * @return handle of the pushed key
+     */
+    int pushWithHandle(long key);
+
+    /**
+     * @param newKey should not be greater than the current key of the handle
+     */
+    void decreaseKey(int handle, long newKey);
+
+    @Override
+    default void push(long key) {
+        pushWithHandle(key);
+    }
+}
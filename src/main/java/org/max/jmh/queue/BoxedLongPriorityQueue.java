@@ -0,0 +1,41 @@
+package org.max.jmh.queue;
+
+import java.util.PriorityQueue;
+
+/**
+ * {@link PriorityQueue} of boxed keys, baseline for the primitive queues. Every key outside of the Long cache
+ * is a separate object, so every comparison dereferences two objects.
+ */
+public final class BoxedLongPriorityQueue implements LongPriorityQueue {
+
+    private final PriorityQueue<Long> queue;
+
+    public BoxedLongPriorityQueue(int initialCapacity) {
+        this.queue = new PriorityQueue<>(initialCapacity);
+    }
+
+    @Override
+    public void push(long key) {
+        queue.add(key);
+    }
+
+    @Override
+    public long pop() {
+        return queue.poll();
+    }
+
+    @Override
+    public long peek() {
+        return queue.peek();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,181 @@
+package org.max.jmh.queue;
+
+import java.util.Arrays;
+
+/**
+ * Implicit d-ary min-heap, arity is a power of 2, so children and parent indexes are computed with shifts.
+ *
+ * Binary heap (arity 2) has the smallest number of comparisons per sift-down. 4-ary heap is half as deep,
+ * does more comparisons per level, but all 4 children are adjacent (32 bytes, usually a single cache line),
+ * so it has fewer cache misses on big heaps.
+ *
+ * Keys and their handles are stored in parallel arrays in heap order, 'positions' maps handle to heap index
+ * for decrease-key. Handles of popped keys are reused through a free stack.
+ */
+public final class DaryLongHeap implements AddressableLongPriorityQueue {
+
+    private static final int NOT_IN_HEAP = -1;
+
+    private final int arity;
+    private final int shift;
+
+    private long[] keys;
+    private int[] handles;
+    private int size;
+
+    private int[] positions;
+    private int[] freeHandles;
+    private int freeCount;
+    private int nextHandle;
+
+    public DaryLongHeap(int arity, int initialCapacity) {
+        assert arity >= 2 && Integer.bitCount(arity) == 1 : "arity should be a power of 2";
+
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+
+        final int capacity = Math.max(initialCapacity, 16);
+        this.keys = new long[capacity];
+        this.handles = new int[capacity];
+        this.positions = new int[capacity];
+        this.freeHandles = new int[capacity];
+    }
+
+    public static DaryLongHeap binary(int initialCapacity) {
+        return new DaryLongHeap(2, initialCapacity);
+    }
+
+    public static DaryLongHeap quaternary(int initialCapacity) {
+        return new DaryLongHeap(4, initialCapacity);
+    }
+
+    @Override
+    public int pushWithHandle(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            handles = Arrays.copyOf(handles, size << 1);
+        }
+
+        final int handle = allocateHandle();
+        siftUp(size++, key, handle);
+        return handle;
+    }
+
+    @Override
+    public void decreaseKey(int handle, long newKey) {
+        final int idx = positions[handle];
+
+        assert idx != NOT_IN_HEAP : "handle was already popped";
+        assert newKey <= keys[idx];
+
+        siftUp(idx, newKey, handle);
+    }
+
+    @Override
+    public long pop() {
+        assert size > 0;
+
+        final long top = keys[0];
+        freeHandle(handles[0]);
+
+        --size;
+        if (size > 0) {
+            siftDown(0, keys[size], handles[size]);
+        }
+
+        return top;
+    }
+
+    @Override
+    public long peek() {
+        assert size > 0;
+        return keys[0];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        freeCount = 0;
+        nextHandle = 0;
+    }
+
+    private void siftUp(int idx, long key, int handle) {
+        final long[] keys = this.keys;
+        final int[] handles = this.handles;
+        final int[] positions = this.positions;
+
+        while (idx > 0) {
+            final int parent = (idx - 1) >>> shift;
+            if (keys[parent] <= key) {
+                break;
+            }
+
+            keys[idx] = keys[parent];
+            handles[idx] = handles[parent];
+            positions[handles[idx]] = idx;
+            idx = parent;
+        }
+
+        keys[idx] = key;
+        handles[idx] = handle;
+        positions[handle] = idx;
+    }
+
+    private void siftDown(int idx, long key, int handle) {
+        final long[] keys = this.keys;
+        final int[] handles = this.handles;
+        final int[] positions = this.positions;
+        final int size = this.size;
+
+        while (true) {
+            final int firstChild = (idx << shift) + 1;
+            if (firstChild >= size) {
+                break;
+            }
+
+            int minChild = firstChild;
+            final int lastChild = Math.min(firstChild + arity, size);
+            for (int child = firstChild + 1; child < lastChild; ++child) {
+                if (keys[child] < keys[minChild]) {
+                    minChild = child;
+                }
+            }
+
+            if (keys[minChild] >= key) {
+                break;
+            }
+
+            keys[idx] = keys[minChild];
+            handles[idx] = handles[minChild];
+            positions[handles[idx]] = idx;
+            idx = minChild;
+        }
+
+        keys[idx] = key;
+        handles[idx] = handle;
+        positions[handle] = idx;
+    }
+
+    private int allocateHandle() {
+        if (freeCount > 0) {
+            return freeHandles[--freeCount];
+        }
+
+        if (nextHandle == positions.length) {
+            positions = Arrays.copyOf(positions, nextHandle << 1);
+            freeHandles = Arrays.copyOf(freeHandles, nextHandle << 1);
+        }
+
+        return nextHandle++;
+    }
+
+    private void freeHandle(int handle) {
+        positions[handle] = NOT_IN_HEAP;
+        freeHandles[freeCount++] = handle;
+    }
+}
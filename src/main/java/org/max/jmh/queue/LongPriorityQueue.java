@@ -0,0 +1,29 @@
+package org.max.jmh.queue;
+
+/**
+ * Min priority queue of primitive long keys, no boxing.
+ *
+ * Implementations are not thread-safe.
+ */
+public interface LongPriorityQueue {
+
+    void push(long key);
+
+    /**
+     * Removes and returns the min key, queue should not be empty.
+     */
+    long pop();
+
+    /**
+     * Returns the min key without removing it, queue should not be empty.
+     */
+    long peek();
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    void clear();
+}
@@ -0,0 +1,270 @@
+package org.max.jmh.queue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Primitive long priority queues vs {@link java.util.PriorityQueue} of boxed keys.
+ *
+ * <ul>
+ *     <li>pushPopAll - push 'size' random keys, then pop all of them (heap sort), score is per whole batch</li>
+ *     <li>hold - queue always holds 'size' keys, every operation pops the min key and pushes it back with a later
+ *     time, the classic timer/scheduler model</li>
+ *     <li>decreaseKeyHold - same as 'hold', but before every pop a random element gets an earlier time (Dijkstra
+ *     relaxation, timer rescheduling). Addressable queues use decrease-key, others use lazy deletion: the new key
+ *     is pushed and the stale one is skipped on pop, so these queues grow by stale keys</li>
+ * </ul>
+ *
+ * 'hold' scores are per single operation (pop + push).
+ */
+@Fork(value = 1, jvmArgs = {"-Xms3G", "-Xmx3G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class LongPriorityQueueBenchmark {
+
+    private static final int OPS_PER_INVOCATION = 1 << 16;
+    private static final int RANDOM_MASK = OPS_PER_INVOCATION - 1;
+
+    /**
+     * 'decreaseKeyHold' keys are '(time << ID_BITS) | id', so every element has a stable id.
+     */
+    private static final int ID_BITS = 24;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    /**
+     * Max delay for the re-pushed key, small enough that time doesn't overflow during a long run.
+     */
+    private static final int MAX_DELAY = 1 << 16;
+
+    public enum QueueType {
+        PRIORITY_QUEUE,
+        BINARY_HEAP,
+        QUATERNARY_HEAP,
+        PAIRING_HEAP,
+        RADIX_HEAP;
+
+        LongPriorityQueue create(int capacity) {
+            return switch (this) {
+                case PRIORITY_QUEUE -> new BoxedLongPriorityQueue(capacity);
+                case BINARY_HEAP -> DaryLongHeap.binary(capacity);
+                case QUATERNARY_HEAP -> DaryLongHeap.quaternary(capacity);
+                case PAIRING_HEAP -> new PairingLongHeap(capacity);
+                case RADIX_HEAP -> new RadixLongHeap();
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueueState {
+
+        @Param({"1000", "100000", "10000000"})
+        int size;
+
+        @Param({"PRIORITY_QUEUE", "BINARY_HEAP", "QUATERNARY_HEAP", "PAIRING_HEAP", "RADIX_HEAP"})
+        QueueType type;
+
+        LongPriorityQueue queue;
+
+        long[] randomKeys;
+        int[] delays;
+        int[] randomIds;
+        int randomIdx;
+
+        /**
+         * Current time of every element and its handle, used by 'decreaseKeyHold' only.
+         */
+        long[] times;
+        int[] handles;
+
+        @Setup
+        public void setUp() {
+            assert size <= ID_MASK + 1;
+
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            queue = type.create(size);
+
+            randomKeys = new long[size];
+            for (int i = 0; i < size; ++i) {
+                randomKeys[i] = rand.nextLong(1L << 40);
+            }
+
+            delays = new int[OPS_PER_INVOCATION];
+            randomIds = new int[OPS_PER_INVOCATION];
+            for (int i = 0; i < OPS_PER_INVOCATION; ++i) {
+                delays[i] = rand.nextInt(MAX_DELAY);
+                randomIds[i] = rand.nextInt(size);
+            }
+
+            times = new long[size];
+            handles = new int[size];
+
+            prefill();
+        }
+
+        /**
+         * Fills the queue for the workload, JMH doesn't guarantee the order of superclass and subclass '@Setup'
+         * methods, so it's a plain hook.
+         */
+        void prefill() {
+        }
+    }
+
+    /**
+     * Queue prefilled with 'size' keys for 'hold' workload.
+     */
+    public static class HoldState extends QueueState {
+
+        @Override
+        void prefill() {
+            queue.clear();
+            for (int i = 0; i < size; ++i) {
+                queue.push(delays[i & RANDOM_MASK]);
+            }
+        }
+    }
+
+    /**
+     * Queue prefilled with 'size' elements with ids for 'decreaseKeyHold' workload.
+     */
+    public static class DecreaseKeyState extends QueueState {
+
+        @Override
+        void prefill() {
+            queue.clear();
+            for (int id = 0; id < size; ++id) {
+                times[id] = delays[id & RANDOM_MASK];
+                push(this, id);
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void pushPopAll(QueueState state, Blackhole bh) {
+        final LongPriorityQueue queue = state.queue;
+
+        queue.clear();
+        for (long key : state.randomKeys) {
+            queue.push(key);
+        }
+
+        long checksum = 0L;
+        while (!queue.isEmpty()) {
+            checksum += queue.pop();
+        }
+
+        bh.consume(checksum);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void hold(HoldState state, Blackhole bh) {
+        final LongPriorityQueue queue = state.queue;
+        final int[] delays = state.delays;
+
+        long now = 0L;
+        for (int i = 0; i < OPS_PER_INVOCATION; ++i) {
+            now = queue.pop();
+            queue.push(now + delays[i]);
+        }
+
+        bh.consume(now);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void decreaseKeyHold(DecreaseKeyState state, Blackhole bh) {
+        final LongPriorityQueue queue = state.queue;
+        final long[] times = state.times;
+        final boolean addressable = queue instanceof AddressableLongPriorityQueue;
+
+        long now = queue.peek() >>> ID_BITS;
+
+        for (int i = 0; i < OPS_PER_INVOCATION; ++i) {
+            final int randomIdx = state.randomIdx++ & RANDOM_MASK;
+
+            // reschedule random element halfway to 'now', always later than 'now', so radix heap stays monotone
+            final int id = state.randomIds[randomIdx];
+            final long newTime = now + ((times[id] - now) >>> 1);
+
+            if (newTime > now && newTime < times[id]) {
+                times[id] = newTime;
+
+                if (addressable) {
+                    ((AddressableLongPriorityQueue) queue).decreaseKey(state.handles[id], key(newTime, id));
+                }
+                else {
+                    queue.push(key(newTime, id));
+                }
+            }
+
+            // pop the earliest element, skipping stale keys, and schedule it again
+            long key = queue.pop();
+            while (key != key(times[(int) (key & ID_MASK)], (int) (key & ID_MASK))) {
+                key = queue.pop();
+            }
+
+            final int minId = (int) (key & ID_MASK);
+            now = key >>> ID_BITS;
+
+            times[minId] = now + state.delays[randomIdx];
+            push(state, minId);
+        }
+
+        bh.consume(now);
+    }
+
+    private static long key(long time, int id) {
+        return (time << ID_BITS) | id;
+    }
+
+    private static void push(QueueState state, int id) {
+        final long key = key(state.times[id], id);
+
+        if (state.queue instanceof AddressableLongPriorityQueue addressable) {
+            state.handles[id] = addressable.pushWithHandle(key);
+        }
+        else {
+            state.queue.push(key);
+        }
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar LongPriorityQueueBenchmark
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(LongPriorityQueueBenchmark.class.getSimpleName())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,209 @@
+package org.max.jmh.queue;
+
+import java.util.Arrays;
+
+/**
+ * Pairing heap, O(1) push and decrease-key, amortized O(log n) pop.
+ *
+ * Nodes live in a pool of parallel arrays instead of objects, node index is the handle. Children of a node form
+ * a doubly linked list: 'child' points to the leftmost child, 'prev' points to the left sibling or to the parent
+ * for the leftmost child. Pop uses two-pass pairing with an explicit stack, so there is no recursion.
+ */
+public final class PairingLongHeap implements AddressableLongPriorityQueue {
+
+    private static final int NIL = -1;
+
+    private long[] keys;
+    private int[] child;
+    private int[] sibling;
+    private int[] prev;
+
+    private int root = NIL;
+    private int size;
+
+    /**
+     * Free nodes are linked through 'sibling'.
+     */
+    private int freeHead = NIL;
+    private int nextNode;
+
+    private int[] pairingStack = new int[64];
+
+    public PairingLongHeap(int initialCapacity) {
+        final int capacity = Math.max(initialCapacity, 16);
+        this.keys = new long[capacity];
+        this.child = new int[capacity];
+        this.sibling = new int[capacity];
+        this.prev = new int[capacity];
+    }
+
+    @Override
+    public int pushWithHandle(long key) {
+        final int node = allocateNode();
+
+        keys[node] = key;
+        child[node] = NIL;
+        sibling[node] = NIL;
+        prev[node] = NIL;
+
+        root = (root == NIL) ? node : meld(root, node);
+        ++size;
+
+        return node;
+    }
+
+    @Override
+    public void decreaseKey(int handle, long newKey) {
+        assert newKey <= keys[handle];
+
+        keys[handle] = newKey;
+
+        if (handle == root) {
+            return;
+        }
+
+        // cut the subtree from its parent and meld it with the root
+        final int left = prev[handle];
+        final int right = sibling[handle];
+
+        if (child[left] == handle) {
+            child[left] = right;
+        }
+        else {
+            sibling[left] = right;
+        }
+
+        if (right != NIL) {
+            prev[right] = left;
+        }
+
+        sibling[handle] = NIL;
+        prev[handle] = NIL;
+
+        root = meld(root, handle);
+    }
+
+    @Override
+    public long pop() {
+        assert size > 0;
+
+        final int oldRoot = root;
+        final long top = keys[oldRoot];
+
+        root = mergePairs(child[oldRoot]);
+        freeNode(oldRoot);
+        --size;
+
+        return top;
+    }
+
+    @Override
+    public long peek() {
+        assert size > 0;
+        return keys[root];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        root = NIL;
+        size = 0;
+        freeHead = NIL;
+        nextNode = 0;
+    }
+
+    /**
+     * Both nodes should be roots (no siblings), the one with bigger key becomes the leftmost child of the other one.
+     */
+    private int meld(int first, int second) {
+        int parent = first;
+        int sub = second;
+
+        if (keys[sub] < keys[parent]) {
+            parent = second;
+            sub = first;
+        }
+
+        final int oldChild = child[parent];
+
+        sibling[sub] = oldChild;
+        if (oldChild != NIL) {
+            prev[oldChild] = sub;
+        }
+        prev[sub] = parent;
+        child[parent] = sub;
+
+        return parent;
+    }
+
+    /**
+     * Two-pass pairing: meld children in pairs left to right, then meld the pairs right to left.
+     */
+    private int mergePairs(int first) {
+        if (first == NIL) {
+            return NIL;
+        }
+
+        int stackSize = 0;
+        int cur = first;
+
+        while (cur != NIL) {
+            final int a = cur;
+            final int b = sibling[a];
+
+            sibling[a] = NIL;
+            prev[a] = NIL;
+
+            int merged = a;
+
+            if (b != NIL) {
+                cur = sibling[b];
+                sibling[b] = NIL;
+                prev[b] = NIL;
+                merged = meld(a, b);
+            }
+            else {
+                cur = NIL;
+            }
+
+            if (stackSize == pairingStack.length) {
+                pairingStack = Arrays.copyOf(pairingStack, stackSize << 1);
+            }
+            pairingStack[stackSize++] = merged;
+        }
+
+        int res = pairingStack[--stackSize];
+        while (stackSize > 0) {
+            res = meld(pairingStack[--stackSize], res);
+        }
+
+        return res;
+    }
+
+    private int allocateNode() {
+        if (freeHead != NIL) {
+            final int node = freeHead;
+            freeHead = sibling[node];
+            return node;
+        }
+
+        if (nextNode == keys.length) {
+            final int newCapacity = nextNode << 1;
+            keys = Arrays.copyOf(keys, newCapacity);
+            child = Arrays.copyOf(child, newCapacity);
+            sibling = Arrays.copyOf(sibling, newCapacity);
+            prev = Arrays.copyOf(prev, newCapacity);
+        }
+
+        return nextNode++;
+    }
+
+    private void freeNode(int node) {
+        sibling[node] = freeHead;
+        freeHead = node;
+    }
+}
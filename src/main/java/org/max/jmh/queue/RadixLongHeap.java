@@ -0,0 +1,103 @@
+package org.max.jmh.queue;
+
+import java.util.Arrays;
+
+/**
+ * Monotone radix heap: pushed keys should be non-negative and not smaller than the last popped key, which holds
+ * for Dijkstra and for timer/scheduler queues, where time never goes backward.
+ *
+ * Key is placed into the bucket of the highest bit in which it differs from the last popped key. When bucket 0
+ * (keys equal to the last popped) is empty, the first non-empty bucket is redistributed around its min key,
+ * every key moves to lower buckets at most 64 times, so pop is amortized O(log C) without comparisons between keys.
+ *
+ * Decrease-key is not supported: keys are not addressable inside the buckets, use lazy deletion instead
+ * (push the new key, skip the stale one on pop).
+ */
+public final class RadixLongHeap implements LongPriorityQueue {
+
+    private final long[][] buckets = new long[Long.SIZE + 1][];
+    private final int[] bucketSizes = new int[Long.SIZE + 1];
+    private int size;
+    private long last;
+
+    public RadixLongHeap() {
+        for (int i = 0; i < buckets.length; ++i) {
+            buckets[i] = new long[16];
+        }
+    }
+
+    @Override
+    public void push(long key) {
+        assert key >= last : "radix heap is monotone";
+
+        add(bucket(key), key);
+        ++size;
+    }
+
+    @Override
+    public long pop() {
+        assert size > 0;
+
+        if (bucketSizes[0] == 0) {
+            redistribute();
+        }
+
+        --size;
+        return buckets[0][--bucketSizes[0]];
+    }
+
+    @Override
+    public long peek() {
+        assert size > 0;
+
+        if (bucketSizes[0] == 0) {
+            redistribute();
+        }
+
+        return last;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bucketSizes, 0);
+        size = 0;
+        last = 0L;
+    }
+
+    private void redistribute() {
+        int idx = 1;
+        while (bucketSizes[idx] == 0) {
+            ++idx;
+        }
+
+        final long[] bucket = buckets[idx];
+        final int bucketSize = bucketSizes[idx];
+
+        long min = bucket[0];
+        for (int i = 1; i < bucketSize; ++i) {
+            min = Math.min(min, bucket[i]);
+        }
+        last = min;
+
+        bucketSizes[idx] = 0;
+        for (int i = 0; i < bucketSize; ++i) {
+            add(bucket(bucket[i]), bucket[i]);
+        }
+    }
+
+    private int bucket(long key) {
+        return Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void add(int idx, long key) {
+        if (bucketSizes[idx] == buckets[idx].length) {
+            buckets[idx] = Arrays.copyOf(buckets[idx], bucketSizes[idx] << 1);
+        }
+        buckets[idx][bucketSizes[idx]++] = key;
+    }
+}
@@ -0,0 +1,124 @@
+package org.max.jmh.string;
+
+import java.util.Arrays;
+
+/**
+ * Aho-Corasick automaton for multi-pattern search: all patterns are found in a single pass, one table lookup per
+ * haystack byte, whatever the number of patterns is.
+ *
+ * Failure links are resolved at build time into a dense DFA, 'next = transitions[row + byte]', so the scan loop
+ * has no inner loop and no branches except the match check. Transitions store the row offset of the target state
+ * ('state * 256') with the sign bit set for states where some pattern ends, so a non-matching step is a single
+ * load. Table size is 'states * 1KB', fine for hundreds of patterns, large dictionaries would need a compressed
+ * alphabet or sparse rows.
+ *
+ * Instance is immutable and thread-safe.
+ */
+public final class AhoCorasick {
+
+    private static final int ALPHABET = 256;
+    private static final int ROOT = 0;
+
+    private static final int MATCH_BIT = Integer.MIN_VALUE;
+
+    private final int[] transitions;
+
+    /**
+     * Number of patterns that end in the state, patterns that are suffixes of the longer ones included.
+     */
+    private final int[] matches;
+
+    public AhoCorasick(byte[]... patterns) {
+        int maxStates = 1;
+        for (byte[] pattern : patterns) {
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+            maxStates += pattern.length;
+        }
+
+        int[] trie = new int[maxStates * ALPHABET];
+        int[] counts = new int[maxStates];
+        int statesCount = 1;
+
+        // trie, 0 means no transition, root is never a target
+        for (byte[] pattern : patterns) {
+            int state = ROOT;
+            for (byte value : pattern) {
+                final int slot = state * ALPHABET + (value & 0xFF);
+                if (trie[slot] == ROOT) {
+                    trie[slot] = statesCount++;
+                }
+                state = trie[slot];
+            }
+            ++counts[state];
+        }
+
+        // BFS from the root, missing transitions are taken from the failure state, which is always closer to root
+        final int[] fail = new int[statesCount];
+        final int[] queue = new int[statesCount];
+        int head = 0;
+        int tail = 0;
+
+        for (int value = 0; value < ALPHABET; ++value) {
+            final int child = trie[value];
+            if (child != ROOT) {
+                fail[child] = ROOT;
+                queue[tail++] = child;
+            }
+        }
+
+        while (head < tail) {
+            final int state = queue[head++];
+            counts[state] += counts[fail[state]];
+
+            for (int value = 0; value < ALPHABET; ++value) {
+                final int slot = state * ALPHABET + value;
+                final int child = trie[slot];
+                final int failTarget = trie[fail[state] * ALPHABET + value];
+
+                if (child == ROOT) {
+                    trie[slot] = failTarget;
+                }
+                else {
+                    fail[child] = failTarget;
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        this.transitions = new int[statesCount * ALPHABET];
+        for (int slot = 0; slot < transitions.length; ++slot) {
+            final int target = trie[slot];
+            transitions[slot] = (target * ALPHABET) | (counts[target] == 0 ? 0 : MATCH_BIT);
+        }
+
+        this.matches = Arrays.copyOf(counts, statesCount);
+    }
+
+    /**
+     * @return total number of occurrences of all patterns in 'haystack[from; to)', overlapping ones included
+     */
+    public long count(byte[] haystack, int from, int to) {
+        final int[] transitions = this.transitions;
+        final int[] matches = this.matches;
+
+        long count = 0L;
+        int row = ROOT;
+
+        for (int i = from; i < to; ++i) {
+            final int next = transitions[row + (haystack[i] & 0xFF)];
+            row = next & ~MATCH_BIT;
+
+            if (next < 0) {
+                count += matches[row / ALPHABET];
+            }
+        }
+
+        return count;
+    }
+
+    public int statesCount() {
+        return matches.length;
+    }
+}
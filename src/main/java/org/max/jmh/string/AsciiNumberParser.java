@@ -0,0 +1,526 @@
+package org.max.jmh.string;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers straight from ASCII bytes, e.g. CSV fields, without creating a String for every field.
+ *
+ * <ul>
+ *     <li>ints and longs are parsed 8 digits at a time: 8 bytes are read as a single little-endian long, validated
+ *     and converted with 3 multiplications (SWAR)</li>
+ *     <li>fixed-point decimals, e.g. prices, are parsed into a scaled long: "187.43" with scale 4 is 1874300</li>
+ *     <li>doubles use exact Clinger fast path when possible, otherwise Eisel-Lemire algorithm: decimal mantissa
+ *     multiplied by 128-bit truncated power of 5 almost always has enough bits to round correctly</li>
+ * </ul>
+ *
+ * Rare inputs (more than 18 digits, more than 19 significant digits of a double, decimals with exponent, "NaN"
+ * etc.) fall back to the JDK parsers, so results are always the same as Long.parseLong, Integer.parseInt,
+ * Double.parseDouble and BigDecimal.setScale(scale).
+ *
+ * 'from' is inclusive, 'to' is exclusive, same as in {@link String#substring(int, int)}.
+ */
+public final class AsciiNumberParser {
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final ValueLayout.OfLong SEGMENT_LONG_LE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * 18 digits always fit into a long, longer numbers take the slow path.
+     */
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private static final int MAX_SIGNIFICANT_DIGITS = 19;
+
+    private static final long[] POW10 = new long[MAX_FAST_DIGITS + 1];
+
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; ++i) {
+            POW10[i] = POW10[i - 1] * 10L;
+        }
+    }
+
+    /**
+     * 10^0..10^22 are exact doubles, so 'mantissa * 10^q' or 'mantissa / 10^q' is correctly rounded when mantissa
+     * is exact too (Clinger fast path).
+     */
+    private static final double[] POW10_DOUBLE = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final int MIN_POW5 = -342;
+    private static final int MAX_POW5 = 308;
+
+    /**
+     * 5^q for q in [-342; 308] as normalized 128-bit values (high and low 64 bits), truncated for positive 'q' and
+     * rounded up for negative 'q', same table as in fast_float library.
+     */
+    private static final long[] POW5_128 = powersOfFive();
+
+    private static final int MANTISSA_BITS = 52;
+    private static final int MIN_BINARY_EXPONENT = -1023;
+    private static final int INFINITE_POWER = 0x7FF;
+
+    private AsciiNumberParser() {
+        throw new AssertionError("Can't instantiate utility-only class");
+    }
+
+    public static int parseInt(byte[] buf, int from, int to) {
+        final long value = parseLong(buf, from, to);
+
+        if ((int) value != value) {
+            throw invalid(buf, from, to);
+        }
+
+        return (int) value;
+    }
+
+    public static long parseLong(byte[] buf, int from, int to) {
+        int idx = signLength(buf, from, to);
+        final boolean negative = idx == 1 && buf[from] == '-';
+        idx += from;
+
+        if (idx == to || to - idx > MAX_FAST_DIGITS) {
+            return slowParseLong(buf, from, to);
+        }
+
+        final long value = parseDigits(buf, idx, to);
+        if (value < 0L) {
+            return slowParseLong(buf, from, to);
+        }
+
+        return negative ? -value : value;
+    }
+
+    public static long parseLong(MemorySegment segment, long from, long to) {
+        long idx = from;
+        boolean negative = false;
+
+        if (idx < to) {
+            final byte first = segment.get(ValueLayout.JAVA_BYTE, idx);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                ++idx;
+            }
+        }
+
+        if (idx == to || to - idx > MAX_FAST_DIGITS) {
+            return slowParseLong(segment, from, to);
+        }
+
+        long value = 0L;
+
+        for (; to - idx >= Long.BYTES; idx += Long.BYTES) {
+            final long word = segment.get(SEGMENT_LONG_LE, idx);
+            if (!isEightDigits(word)) {
+                break;
+            }
+            value = value * 100_000_000L + parseEightDigits(word);
+        }
+
+        for (; idx < to; ++idx) {
+            final int digit = segment.get(ValueLayout.JAVA_BYTE, idx) - '0';
+            if (digit < 0 || digit > 9) {
+                return slowParseLong(segment, from, to);
+            }
+            value = value * 10L + digit;
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses decimal into 'value * 10^scale', same as 'new BigDecimal(text).setScale(scale)' unscaled value.
+     * Plain '[+-]digits[.digits]' is parsed directly. Trailing zeros of the fraction don't count, so "1.2500" with
+     * scale 2 is 125.
+     *
+     * @throws ArithmeticException if fraction has more than 'scale' significant digits or result doesn't fit into long
+     */
+    public static long parseDecimal(byte[] buf, int from, int to, int scale) {
+        int idx = signLength(buf, from, to);
+        final boolean negative = idx == 1 && buf[from] == '-';
+        idx += from;
+
+        int dot = idx;
+        while (dot < to && buf[dot] != '.') {
+            ++dot;
+        }
+
+        int fractionEnd = to;
+        while (fractionEnd > dot + 1 && buf[fractionEnd - 1] == '0') {
+            --fractionEnd;
+        }
+
+        final int intDigits = dot - idx;
+        final int fractionDigits = Math.max(fractionEnd - dot - 1, 0);
+
+        if (scale < 0 || intDigits + scale > MAX_FAST_DIGITS || fractionDigits > scale
+                || (intDigits == 0 && to - dot <= 1)) {
+            return slowParseDecimal(buf, from, to, scale);
+        }
+
+        final long intPart = intDigits == 0 ? 0L : parseDigits(buf, idx, dot);
+        final long fraction = fractionDigits == 0 ? 0L : parseDigits(buf, dot + 1, fractionEnd);
+
+        if (intPart < 0L || fraction < 0L) {
+            return slowParseDecimal(buf, from, to, scale);
+        }
+
+        final long value = intPart * POW10[scale] + fraction * POW10[scale - fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Same as {@link #parseDecimal(byte[], int, int, int)}, but for off-heap or memory mapped data.
+     */
+    public static long parseDecimal(MemorySegment segment, long from, long to, int scale) {
+        if (scale < 0 || scale > MAX_FAST_DIGITS) {
+            return slowParseDecimal(segment, from, to, scale);
+        }
+
+        long idx = from;
+        boolean negative = false;
+
+        if (idx < to) {
+            final byte first = segment.get(ValueLayout.JAVA_BYTE, idx);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                ++idx;
+            }
+        }
+
+        long intPart = 0L;
+        int intDigits = 0;
+        for (; idx < to; ++idx) {
+            final int digit = segment.get(ValueLayout.JAVA_BYTE, idx) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            intPart = intPart * 10L + digit;
+            ++intDigits;
+        }
+
+        long fraction = 0L;
+        int fractionDigits = 0;
+        int trailingZeros = 0;
+
+        if (idx < to && segment.get(ValueLayout.JAVA_BYTE, idx) == '.') {
+            for (++idx; idx < to; ++idx) {
+                final int digit = segment.get(ValueLayout.JAVA_BYTE, idx) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+
+                if (digit == 0) {
+                    ++trailingZeros;
+                }
+                else {
+                    fractionDigits += trailingZeros + 1;
+                    if (fractionDigits > scale) {
+                        break;
+                    }
+
+                    fraction = fraction * POW10[trailingZeros + 1] + digit;
+                    trailingZeros = 0;
+                }
+            }
+        }
+
+        if (idx != to || intDigits + scale > MAX_FAST_DIGITS || fractionDigits > scale
+                || (intDigits == 0 && fractionDigits + trailingZeros == 0)) {
+            return slowParseDecimal(segment, from, to, scale);
+        }
+
+        final long value = intPart * POW10[scale] + fraction * POW10[scale - fractionDigits];
+        return negative ? -value : value;
+    }
+
+    public static double parseDouble(byte[] buf, int from, int to) {
+        int idx = signLength(buf, from, to);
+        final boolean negative = idx == 1 && buf[from] == '-';
+        idx += from;
+
+        final int mantissaStart = idx;
+        long mantissa = 0L;
+        int significantDigits = 0;
+        int exponent = 0;
+
+        for (; idx < to && isDigit(buf[idx]); ++idx) {
+            final int digit = buf[idx] - '0';
+            if (significantDigits != 0 || digit != 0) {
+                mantissa = mantissa * 10L + digit;
+                ++significantDigits;
+            }
+        }
+
+        if (idx < to && buf[idx] == '.') {
+            for (++idx; idx < to && isDigit(buf[idx]); ++idx) {
+                final int digit = buf[idx] - '0';
+                if (significantDigits != 0 || digit != 0) {
+                    mantissa = mantissa * 10L + digit;
+                    ++significantDigits;
+                }
+                --exponent;
+            }
+        }
+
+        final int mantissaLength = idx - mantissaStart;
+        final boolean hasDigits = mantissaLength > 1 || (mantissaLength == 1 && buf[mantissaStart] != '.');
+
+        if (hasDigits && idx < to && (buf[idx] == 'e' || buf[idx] == 'E')) {
+            int expIdx = idx + 1;
+            boolean negativeExp = false;
+
+            if (expIdx < to && (buf[expIdx] == '-' || buf[expIdx] == '+')) {
+                negativeExp = buf[expIdx] == '-';
+                ++expIdx;
+            }
+
+            int explicitExp = 0;
+            final int expStart = expIdx;
+            for (; expIdx < to && isDigit(buf[expIdx]); ++expIdx) {
+                // clamped, anything this big is zero or infinity anyway
+                explicitExp = Math.min(explicitExp * 10 + (buf[expIdx] - '0'), 100_000);
+            }
+
+            if (expIdx > expStart) {
+                exponent += negativeExp ? -explicitExp : explicitExp;
+                idx = expIdx;
+            }
+        }
+
+        if (!hasDigits || idx != to || significantDigits > MAX_SIGNIFICANT_DIGITS) {
+            return Double.parseDouble(new String(buf, from, to - from, StandardCharsets.ISO_8859_1));
+        }
+
+        if (mantissa == 0L) {
+            return negative ? -0.0 : 0.0;
+        }
+
+        if (exponent >= -22 && exponent <= 22 && Long.compareUnsigned(mantissa, MAX_EXACT_MANTISSA) <= 0) {
+            final double value = exponent < 0 ? (double) mantissa / POW10_DOUBLE[-exponent] :
+                (double) mantissa * POW10_DOUBLE[exponent];
+            return negative ? -value : value;
+        }
+
+        final long bits = eiselLemire(mantissa, exponent);
+        if (bits < 0L) {
+            return Double.parseDouble(new String(buf, from, to - from, StandardCharsets.ISO_8859_1));
+        }
+
+        return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+    }
+
+    /**
+     * Port of 'compute_float' from fast_float library for binary64.
+     *
+     * @param w - unsigned decimal mantissa, not zero
+     * @param q - decimal exponent
+     * @return bits of positive double 'w * 10^q' or -1 if the result can't be proven correctly rounded
+     */
+    private static long eiselLemire(long w, int q) {
+        if (q < MIN_POW5) {
+            return 0L;
+        }
+
+        if (q > MAX_POW5) {
+            return Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        }
+
+        final int leadingZeros = Long.numberOfLeadingZeros(w);
+        w <<= leadingZeros;
+
+        final int tableIdx = (q - MIN_POW5) << 1;
+
+        // only 55 bits of the product are needed (mantissa + implicit bit + 2 rounding bits), second half of the
+        // power is used only if lower 9 bits of the high word are all ones, so a carry can change them
+        long low = w * POW5_128[tableIdx];
+        long high = Math.unsignedMultiplyHigh(w, POW5_128[tableIdx]);
+
+        final long precisionMask = -1L >>> (MANTISSA_BITS + 3);
+
+        if ((high & precisionMask) == precisionMask) {
+            final long secondHigh = Math.unsignedMultiplyHigh(w, POW5_128[tableIdx + 1]);
+            low += secondHigh;
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                ++high;
+            }
+        }
+
+        if (low == -1L && (q < -27 || q > 55)) {
+            return -1L;
+        }
+
+        final int upperBit = (int) (high >>> 63);
+        long mantissa = high >>> (upperBit + 64 - MANTISSA_BITS - 3);
+        int power2 = power(q) + upperBit - leadingZeros - MIN_BINARY_EXPONENT;
+
+        if (power2 <= 0) {
+            // subnormal
+            if (-power2 + 1 >= 64) {
+                return 0L;
+            }
+
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1L;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << MANTISSA_BITS) ? 0 : 1;
+
+            return ((long) power2 << MANTISSA_BITS) | (mantissa & ((1L << MANTISSA_BITS) - 1));
+        }
+
+        // exactly in the middle between two doubles, round to even
+        if (Long.compareUnsigned(low, 1L) <= 0 && q >= -4 && q <= 23 && (mantissa & 3L) == 1L
+                && (mantissa << (upperBit + 64 - MANTISSA_BITS - 3)) == high) {
+            mantissa &= ~1L;
+        }
+
+        mantissa += mantissa & 1L;
+        mantissa >>>= 1;
+
+        if (mantissa >= (2L << MANTISSA_BITS)) {
+            mantissa = 1L << MANTISSA_BITS;
+            ++power2;
+        }
+
+        if (power2 >= INFINITE_POWER) {
+            return Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        }
+
+        return ((long) power2 << MANTISSA_BITS) | (mantissa & ((1L << MANTISSA_BITS) - 1));
+    }
+
+    /**
+     * floor(log2(10^q)) + 63, exact for q in [-342; 308].
+     */
+    private static int power(int q) {
+        return (((152_170 + 65_536) * q) >> 16) + 63;
+    }
+
+    private static long[] powersOfFive() {
+        final BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+        final long[] table = new long[(MAX_POW5 - MIN_POW5 + 1) << 1];
+
+        for (int q = MIN_POW5; q <= MAX_POW5; ++q) {
+            BigInteger value;
+
+            if (q < 0) {
+                final BigInteger pow5 = BigInteger.valueOf(5L).pow(-q);
+                final int z = pow5.subtract(BigInteger.ONE).bitLength();
+                final int bits = q >= -27 ? z + 127 : 2 * z + 128;
+
+                value = BigInteger.ONE.shiftLeft(bits).divide(pow5).add(BigInteger.ONE);
+                if (value.compareTo(two128) >= 0) {
+                    value = value.shiftRight(value.bitLength() - 128);
+                }
+            }
+            else {
+                value = BigInteger.valueOf(5L).pow(q);
+                // shift by a negative distance truncates
+                value = value.shiftLeft(128 - value.bitLength());
+            }
+
+            final int idx = (q - MIN_POW5) << 1;
+            table[idx] = value.shiftRight(64).longValue();
+            table[idx + 1] = value.longValue();
+        }
+
+        return table;
+    }
+
+    /**
+     * Parses unsigned digits, at most 18 of them, 8 at a time while possible.
+     *
+     * @return parsed value or -1 if there is a non-digit
+     */
+    private static long parseDigits(byte[] buf, int from, int to) {
+        long value = 0L;
+        int idx = from;
+
+        for (; to - idx >= Long.BYTES; idx += Long.BYTES) {
+            final long word = (long) LONG_LE.get(buf, idx);
+            if (!isEightDigits(word)) {
+                break;
+            }
+            value = value * 100_000_000L + parseEightDigits(word);
+        }
+
+        for (; idx < to; ++idx) {
+            final int digit = buf[idx] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1L;
+            }
+            value = value * 10L + digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Every byte is in ['0'; '9'] iff its high nibble is 3 and adding 6 doesn't carry into the high nibble.
+     */
+    static boolean isEightDigits(long word) {
+        return ((word & 0xF0F0_F0F0_F0F0_F0F0L) | (((word + 0x0606_0606_0606_0606L) & 0xF0F0_F0F0_F0F0_F0F0L) >>> 4))
+            == 0x3333_3333_3333_3333L;
+    }
+
+    /**
+     * First digit is in the lowest byte. Digits are combined into pairs, pairs into 4-digit groups, groups into
+     * the result, every step is a multiplication of all lanes at once.
+     */
+    static int parseEightDigits(long word) {
+        word -= 0x3030_3030_3030_3030L;
+        word = word * 10L + (word >>> 8);
+        word = (((word & 0x0000_00FF_0000_00FFL) * (100L + (1_000_000L << 32)))
+            + (((word >>> 16) & 0x0000_00FF_0000_00FFL) * (1L + (10_000L << 32)))) >>> 32;
+        return (int) word;
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private static int signLength(byte[] buf, int from, int to) {
+        return from < to && (buf[from] == '-' || buf[from] == '+') ? 1 : 0;
+    }
+
+    private static long slowParseLong(byte[] buf, int from, int to) {
+        return Long.parseLong(new String(buf, from, to - from, StandardCharsets.ISO_8859_1));
+    }
+
+    private static long slowParseLong(MemorySegment segment, long from, long to) {
+        return Long.parseLong(asString(segment, from, to));
+    }
+
+    private static long slowParseDecimal(byte[] buf, int from, int to, int scale) {
+        return slowParseDecimal(new String(buf, from, to - from, StandardCharsets.ISO_8859_1), scale);
+    }
+
+    private static long slowParseDecimal(MemorySegment segment, long from, long to, int scale) {
+        return slowParseDecimal(asString(segment, from, to), scale);
+    }
+
+    private static long slowParseDecimal(String value, int scale) {
+        return new BigDecimal(value).setScale(scale).unscaledValue().longValueExact();
+    }
+
+    private static String asString(MemorySegment segment, long from, long to) {
+        return new String(segment.asSlice(from, to - from).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.ISO_8859_1);
+    }
+
+    private static NumberFormatException invalid(byte[] buf, int from, int to) {
+        return new NumberFormatException(
+            "For input string: \"" + new String(buf, from, to - from, StandardCharsets.ISO_8859_1) + "\"");
+    }
+}
@@ -0,0 +1,50 @@
+package org.max.jmh.string;
+
+import java.util.Arrays;
+
+/**
+ * Boyer-Moore-Horspool: window is compared from the end and shifted by the distance from the last occurrence
+ * of its last byte in the needle, so most windows are skipped after a single comparison when the needle is long.
+ * Short needles get short shifts and the scan becomes a byte at a time loop with a table lookup.
+ */
+public final class BoyerMooreHorspool implements SubstringSearch {
+
+    private final byte[] needle;
+
+    /**
+     * Shift for every byte value, 'needle.length' for bytes not present in the needle (except the last byte).
+     */
+    private final int[] shifts = new int[256];
+
+    public BoyerMooreHorspool(byte[] needle) {
+        if (needle.length == 0) {
+            throw new IllegalArgumentException("Empty needle");
+        }
+
+        this.needle = needle.clone();
+
+        Arrays.fill(shifts, needle.length);
+        for (int i = 0; i < needle.length - 1; ++i) {
+            shifts[needle[i] & 0xFF] = needle.length - 1 - i;
+        }
+    }
+
+    @Override
+    public int indexOf(byte[] haystack, int from, int to) {
+        final byte[] needle = this.needle;
+        final int last = needle.length - 1;
+        final byte lastByte = needle[last];
+
+        for (int idx = from; idx <= to - needle.length; ) {
+            final byte cur = haystack[idx + last];
+
+            if (cur == lastByte && Arrays.equals(haystack, idx, idx + last, needle, 0, last)) {
+                return idx;
+            }
+
+            idx += shifts[cur & 0xFF];
+        }
+
+        return NOT_FOUND;
+    }
+}
@@ -0,0 +1,192 @@
+package org.max.jmh.string;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Same operations as {@link StringConcatBenchmark} and {@link FormattingBenchmark}, but the user-generated part of
+ * the message (name and comment) comes from different charsets. Compact strings keep a String in Latin-1 coder
+ * (1 byte per char) only if every char is below 256, a single CJK char or emoji switches the whole String to
+ * UTF-16 coder (2 bytes per char) and every concatenation result that contains it.
+ *
+ * <ul>
+ *     <li>ASCII - Latin-1 coder, UTF-8 is the same bytes</li>
+ *     <li>LATIN_1 - Latin-1 coder, accented letters are 2 bytes in UTF-8</li>
+ *     <li>CJK - UTF-16 coder, 3 bytes per char in UTF-8</li>
+ *     <li>EMOJI - UTF-16 coder, surrogate pairs, 4 bytes per code point in UTF-8</li>
+ *     <li>ASCII_WITH_EMOJI - ASCII text with a single emoji at the end, typical chat message</li>
+ * </ul>
+ *
+ * 'decodeUtf8AndHash' minus 'decodeUtf8' is the hashing cost, String caches its hash, so it can't be measured alone.
+ * {@link WithoutCompactStrings} runs everything again with '-XX:-CompactStrings', all strings are UTF-16.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class CompactStringsBenchmark {
+
+    private static final int NAME_LENGTH = 12;
+    private static final int COMMENT_LENGTH = 64;
+
+    public enum TextCharset {
+        ASCII,
+        LATIN_1,
+        CJK,
+        EMOJI,
+        ASCII_WITH_EMOJI;
+
+        private static final String LATIN_1_LETTERS = "àáâãäåçèéêëìíîïñòóôõöùúûüýÿßÀÉÖÜ";
+
+        String randomText(SplittableRandom rand, int length) {
+            StringBuilder buf = new StringBuilder(length * 2);
+
+            for (int i = 0; i < length; ++i) {
+                switch (this) {
+                    case ASCII -> buf.append(randomAscii(rand));
+                    // every 4th letter is accented, e.g. French or German
+                    case LATIN_1 -> buf.append(rand.nextInt(4) == 0 ?
+                                                   LATIN_1_LETTERS.charAt(rand.nextInt(LATIN_1_LETTERS.length())) :
+                                                   randomAscii(rand));
+                    case CJK -> buf.append((char) rand.nextInt(0x4E00, 0x9FFF + 1));
+                    case EMOJI -> buf.appendCodePoint(rand.nextInt(0x1F600, 0x1F64F + 1));
+                    case ASCII_WITH_EMOJI -> {
+                        if (i == length - 1) {
+                            buf.appendCodePoint(rand.nextInt(0x1F600, 0x1F64F + 1));
+                        }
+                        else {
+                            buf.append(randomAscii(rand));
+                        }
+                    }
+                }
+            }
+
+            return buf.toString();
+        }
+
+        private static char randomAscii(SplittableRandom rand) {
+            return rand.nextInt(6) == 0 ? ' ' : (char) ('a' + rand.nextInt(26));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TextState {
+
+        @Param({"ASCII", "LATIN_1", "CJK", "EMOJI", "ASCII_WITH_EMOJI"})
+        TextCharset charset;
+
+        String name;
+        String comment;
+        int id;
+
+        /**
+         * Equal to 'comment', but a different instance, so 'equals' compares the contents.
+         */
+        String commentCopy;
+
+        byte[] commentUtf8;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            name = charset.randomText(rand, NAME_LENGTH);
+            comment = charset.randomText(rand, COMMENT_LENGTH);
+            id = rand.nextInt(1_000_000);
+
+            commentCopy = new String(comment.toCharArray());
+            commentUtf8 = comment.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Same benchmarks in a fork with '-XX:-CompactStrings': even ASCII and Latin-1 strings keep 2 bytes per char,
+     * so they show what compact strings save on the Latin-1 inputs.
+     */
+    @Fork(value = 1, jvmArgsAppend = "-XX:-CompactStrings")
+    public static class WithoutCompactStrings extends CompactStringsBenchmark {
+    }
+
+    @Benchmark
+    public void concat(TextState state, Blackhole bh) {
+        bh.consume("user: " + state.name + ", id: " + state.id + ", comment: " + state.comment);
+    }
+
+    @Benchmark
+    public void stringBuilder(TextState state, Blackhole bh) {
+        StringBuilder buf = new StringBuilder();
+
+        buf.append("user: ").append(state.name).
+            append(", id: ").append(state.id).
+            append(", comment: ").append(state.comment);
+
+        bh.consume(buf.toString());
+    }
+
+    @Benchmark
+    public void format(TextState state, Blackhole bh) {
+        bh.consume(String.format("user: %s, id: %d, comment: %s", state.name, state.id, state.comment));
+    }
+
+    @Benchmark
+    public void getBytesUtf8(TextState state, Blackhole bh) {
+        bh.consume(state.comment.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void decodeUtf8(TextState state, Blackhole bh) {
+        bh.consume(new String(state.commentUtf8, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void decodeUtf8AndHash(TextState state, Blackhole bh) {
+        bh.consume(new String(state.commentUtf8, StandardCharsets.UTF_8).hashCode());
+    }
+
+    @Benchmark
+    public void equalsSameContent(TextState state, Blackhole bh) {
+        bh.consume(state.comment.equals(state.commentCopy));
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar CompactStringsBenchmark -prof gc
+     *
+     * Compact strings only (without the '-XX:-CompactStrings' fork):
+     *    $ java -jar target/benchmarks.jar "CompactStringsBenchmark\.[a-z]"
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(CompactStringsBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
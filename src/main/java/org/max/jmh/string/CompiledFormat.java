@@ -0,0 +1,221 @@
+package org.max.jmh.string;
+
+import java.util.Arrays;
+import java.util.IllegalFormatConversionException;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.UnknownFormatConversionException;
+
+/**
+ * Format template parsed once into segments, so rendering doesn't parse anything and doesn't allocate:
+ * no varargs array, no boxing, no {@link java.util.Formatter} and no {@link java.math.BigDecimal}.
+ *
+ * <pre>
+ *     static final CompiledFormat ORDER = CompiledFormat.compile("order: %d, price: $ %.2f, customer: %d");
+ *
+ *     StringBuilder line = ORDER.begin().arg(orderId).arg(price).arg(customerId).finish();
+ * </pre>
+ *
+ * Supported conversions: '%d' (int/long), '%.Nf' (double, N in [0; 9]), '%s' and '%%'. Output is always
+ * Locale.ROOT-like ('.' as decimal separator, no grouping).
+ *
+ * '%.Nf' is rounded HALF_UP on the shortest decimal representation of the double, same as String.format, so
+ * 1.005 becomes "1.01". Values with more than 2^43 units of the last digit, NaN and infinities fall back to
+ * String.format.
+ *
+ * Instance is immutable and thread-safe, every thread renders into its own reusable buffer.
+ */
+public final class CompiledFormat {
+
+    private static final long[] POW10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private static final double MAX_FAST_SCALED = 0x1p43;
+
+    private static final char INT = 'd';
+    private static final char FIXED = 'f';
+    private static final char STRING = 's';
+
+    /**
+     * literals[i] goes before conversion 'i', the last literal goes after the last conversion.
+     */
+    private final String[] literals;
+    private final char[] conversions;
+    private final int[] precisions;
+
+    private final ThreadLocal<Renderer> renderers = ThreadLocal.withInitial(Renderer::new);
+
+    private CompiledFormat(String[] literals, char[] conversions, int[] precisions) {
+        this.literals = literals;
+        this.conversions = conversions;
+        this.precisions = precisions;
+    }
+
+    public static CompiledFormat compile(String template) {
+        StringBuilder literal = new StringBuilder();
+
+        String[] literals = new String[template.length() + 1];
+        char[] conversions = new char[template.length()];
+        int[] precisions = new int[template.length()];
+        int count = 0;
+
+        int idx = 0;
+        while (idx < template.length()) {
+            char ch = template.charAt(idx++);
+
+            if (ch != '%') {
+                literal.append(ch);
+                continue;
+            }
+
+            if (idx == template.length()) {
+                throw new UnknownFormatConversionException("%");
+            }
+
+            ch = template.charAt(idx++);
+
+            if (ch == '%') {
+                literal.append('%');
+                continue;
+            }
+
+            int precision = 0;
+
+            if (ch == '.') {
+                if (idx + 1 >= template.length() || !Character.isDigit(template.charAt(idx))
+                        || template.charAt(idx + 1) != FIXED) {
+                    throw new UnknownFormatConversionException(template.substring(idx - 2));
+                }
+
+                precision = template.charAt(idx) - '0';
+                ch = template.charAt(idx + 1);
+                idx += 2;
+            }
+            else if (ch != INT && ch != STRING) {
+                throw new UnknownFormatConversionException(String.valueOf(ch));
+            }
+
+            literals[count] = literal.toString();
+            conversions[count] = ch;
+            precisions[count] = precision;
+            ++count;
+
+            literal.setLength(0);
+        }
+
+        literals[count] = literal.toString();
+
+        return new CompiledFormat(Arrays.copyOf(literals, count + 1), Arrays.copyOf(conversions, count),
+                Arrays.copyOf(precisions, count));
+    }
+
+    /**
+     * Starts rendering into the buffer of the current thread, previous result of this thread is discarded.
+     */
+    public Renderer begin() {
+        Renderer renderer = renderers.get();
+        renderer.buf.setLength(0);
+        renderer.argIdx = 0;
+        return renderer;
+    }
+
+    public final class Renderer {
+
+        private final StringBuilder buf = new StringBuilder(64);
+        private int argIdx;
+
+        private Renderer() {
+        }
+
+        public Renderer arg(long value) {
+            next(INT, Long.class).append(value);
+            return this;
+        }
+
+        public Renderer arg(double value) {
+            StringBuilder out = next(FIXED, Double.class);
+            appendFixed(out, value, precisions[argIdx - 1]);
+            return this;
+        }
+
+        public Renderer arg(CharSequence value) {
+            next(STRING, String.class).append(value);
+            return this;
+        }
+
+        /**
+         * @return thread local buffer with the rendered text, valid until the next {@link #begin()} on this thread
+         */
+        public StringBuilder finish() {
+            if (argIdx != conversions.length) {
+                throw new MissingFormatArgumentException("%" + conversions[argIdx]);
+            }
+
+            return buf.append(literals[argIdx]);
+        }
+
+        @Override
+        public String toString() {
+            return finish().toString();
+        }
+
+        private StringBuilder next(char conversion, Class<?> argType) {
+            if (argIdx == conversions.length) {
+                throw new IllegalStateException("Too many arguments, expected " + conversions.length);
+            }
+
+            if (conversions[argIdx] != conversion) {
+                throw new IllegalFormatConversionException(conversions[argIdx], argType);
+            }
+
+            return buf.append(literals[argIdx++]);
+        }
+    }
+
+    /**
+     * Let 'n' be the nearest integer to 'value * 10^p'. Result is 'n - 1', 'n' or 'n + 1' depending on where the
+     * value is relative to the midpoints '(n -/+ 0.5) / 10^p'. Midpoint is exact in double and division is correctly
+     * rounded, so comparing with the nearest double to the midpoint gives the same answer as rounding
+     * the shortest decimal representation: equality means the midpoint itself is the shortest representation
+     * (it's a tie and rounds up), any other value is strictly on one side of it.
+     */
+    static void appendFixed(StringBuilder out, double value, int precision) {
+        final double abs = Math.abs(value);
+        final long pow = POW10[precision];
+        final double scaled = abs * pow;
+
+        if (!(scaled < MAX_FAST_SCALED)) {
+            out.append(String.format(Locale.ROOT, "%." + precision + "f", value));
+            return;
+        }
+
+        long units = Math.round(scaled);
+
+        if (abs >= (units + 0.5) / pow) {
+            ++units;
+        }
+        else if (units > 0 && abs < (units - 0.5) / pow) {
+            --units;
+        }
+
+        // sign of negative zero and of negative values rounded to zero is kept, same as String.format
+        if (Double.doubleToRawLongBits(value) < 0) {
+            out.append('-');
+        }
+
+        out.append(units / pow);
+
+        if (precision == 0) {
+            return;
+        }
+
+        out.append('.');
+
+        final long fraction = units % pow;
+        for (long digitPow = pow / 10; digitPow > fraction && digitPow > 1; digitPow /= 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
@@ -2,6 +2,7 @@ package org.max.jmh.string;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -14,6 +15,10 @@ import java.util.concurrent.TimeUnit;
  *
  * <p>Benchmark Mode Cnt Score Error Units FormattingBenchmark.format avgt 5 208.383 ± 4.416 ns/op
  * FormattingBenchmark.usingStringBuilder avgt 5 86.615 ± 1.125 ns/op
+ *
+ * <p>'compiledFormat*' use {@link CompiledFormat}, template is parsed once and rendered into per-thread buffer.
+ * 'compiledFormat' still creates the result String, 'compiledFormatToBuffer' doesn't allocate at all.
+ * Run with GC profiler to compare 'gc.alloc.rate.norm'.
  */
 @Fork(1)
 @BenchmarkMode(Mode.AverageTime)
@@ -26,6 +31,9 @@ public class FormattingBenchmark {
     private static final double PRICE = 99.17;
     private static final int CUSTOMER_ID = 177;
 
+    private static final CompiledFormat ORDER_FORMAT =
+            CompiledFormat.compile("order: %d, price: $ %.2f, customer: %d");
+
     @Benchmark
     public void format(Blackhole bh) {
         String result =
@@ -47,12 +55,24 @@ public class FormattingBenchmark {
         bh.consume(result);
     }
 
+    @Benchmark
+    public void compiledFormat(Blackhole bh) {
+        String result = ORDER_FORMAT.begin().arg(ORDER_ID).arg(PRICE).arg(CUSTOMER_ID).toString();
+        bh.consume(result);
+    }
+
+    @Benchmark
+    public void compiledFormatToBuffer(Blackhole bh) {
+        StringBuilder result = ORDER_FORMAT.begin().arg(ORDER_ID).arg(PRICE).arg(CUSTOMER_ID).finish();
+        bh.consume(result);
+    }
+
     /*
      * ============================== HOW TO RUN THIS BENCHMARK ====================================
      *
      * To run benchmark and see the results do the following:
      *    $ ./mvnw clean package
-     *    $ java -jar target/benchmarks.jar FormattingBenchmark
+     *    $ java -jar target/benchmarks.jar FormattingBenchmark -prof gc
      *
      * ============================== HOW TO RUN THIS BENCHMARK ====================================
      */
@@ -61,6 +81,7 @@ public class FormattingBenchmark {
         Options opt =
                 new OptionsBuilder()
                         .include(FormattingBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
                         //            .threads(Runtime.getRuntime().availableProcessors())
                         .jvmArgs("-Xms1G", "-Xmx1G")
                         .build();
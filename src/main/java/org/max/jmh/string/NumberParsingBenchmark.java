@@ -0,0 +1,249 @@
+package org.max.jmh.string;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Parsing numbers from market-data CSV rows 'timestamp,symbol,price,quantity', e.g.
+ * '1700000000123,NVDA,187.4325,300'.
+ *
+ * <ul>
+ *     <li>jdk* - field is copied into a String first: Integer.parseInt, Long.parseLong, Double.parseDouble and
+ *     BigDecimal for fixed-point prices</li>
+ *     <li>parse* - {@link AsciiNumberParser} straight from the byte[], no allocation at all</li>
+ *     <li>segmentParse* - same for off-heap {@link MemorySegment}, the way memory mapped files are read</li>
+ * </ul>
+ *
+ * Field boundaries are found once during setup, so scores are per single field and include parsing only.
+ * Run with GC profiler to compare 'gc.alloc.rate.norm'.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class NumberParsingBenchmark {
+
+    private static final int ROWS = 1 << 14;
+
+    /**
+     * Prices are kept as 'price * 10^4'.
+     */
+    private static final int PRICE_SCALE = 4;
+
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "GOOG", "AMZN", "NVDA", "TSLA", "META", "BRK.B"};
+
+    @State(Scope.Benchmark)
+    public static class CsvState {
+
+        byte[] csv;
+
+        int[] timestampFrom = new int[ROWS];
+        int[] timestampTo = new int[ROWS];
+        int[] priceFrom = new int[ROWS];
+        int[] priceTo = new int[ROWS];
+        int[] quantityFrom = new int[ROWS];
+        int[] quantityTo = new int[ROWS];
+
+        Arena arena;
+        MemorySegment segment;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            StringBuilder buf = new StringBuilder(ROWS * 40);
+            long timestamp = 1_700_000_000_000L;
+
+            for (int row = 0; row < ROWS; ++row) {
+                timestamp += rand.nextInt(50);
+
+                buf.append(timestamp).append(',');
+                buf.append(SYMBOLS[rand.nextInt(SYMBOLS.length)]).append(',');
+
+                // 2 to 4 fraction digits, trailing zeros are dropped by some feeds
+                final int fractionDigits = 2 + rand.nextInt(PRICE_SCALE - 1);
+                final double price = rand.nextDouble(0.01, 2000.0);
+                buf.append(String.format(Locale.ROOT, "%." + fractionDigits + "f", price)).append(',');
+
+                buf.append(1 + rand.nextInt(rand.nextBoolean() ? 1000 : 100_000)).append('\n');
+            }
+
+            csv = buf.toString().getBytes(StandardCharsets.US_ASCII);
+
+            int from = 0;
+            for (int row = 0; row < ROWS; ++row) {
+                int to = next(csv, from, (byte) ',');
+                timestampFrom[row] = from;
+                timestampTo[row] = to;
+
+                // skip symbol
+                from = next(csv, to + 1, (byte) ',') + 1;
+
+                to = next(csv, from, (byte) ',');
+                priceFrom[row] = from;
+                priceTo[row] = to;
+
+                from = to + 1;
+                to = next(csv, from, (byte) '\n');
+                quantityFrom[row] = from;
+                quantityTo[row] = to;
+
+                from = to + 1;
+            }
+
+            arena = Arena.ofShared();
+            segment = arena.allocate(csv.length, Long.BYTES);
+            MemorySegment.copy(csv, 0, segment, ValueLayout.JAVA_BYTE, 0L, csv.length);
+        }
+
+        @TearDown
+        public void tearDown() {
+            arena.close();
+        }
+
+        private static int next(byte[] buf, int from, byte separator) {
+            while (buf[from] != separator) {
+                ++from;
+            }
+            return from;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void jdkParseInt(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            final int from = state.quantityFrom[row];
+            bh.consume(Integer.parseInt(new String(state.csv, from, state.quantityTo[row] - from,
+                                                   StandardCharsets.US_ASCII)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseInt(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            bh.consume(AsciiNumberParser.parseInt(state.csv, state.quantityFrom[row], state.quantityTo[row]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void jdkParseLong(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            final int from = state.timestampFrom[row];
+            bh.consume(Long.parseLong(new String(state.csv, from, state.timestampTo[row] - from,
+                                                 StandardCharsets.US_ASCII)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseLong(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            bh.consume(AsciiNumberParser.parseLong(state.csv, state.timestampFrom[row], state.timestampTo[row]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void segmentParseLong(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            bh.consume(AsciiNumberParser.parseLong(state.segment, state.timestampFrom[row], state.timestampTo[row]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void jdkParseDouble(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            final int from = state.priceFrom[row];
+            bh.consume(Double.parseDouble(new String(state.csv, from, state.priceTo[row] - from,
+                                                     StandardCharsets.US_ASCII)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseDouble(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            bh.consume(AsciiNumberParser.parseDouble(state.csv, state.priceFrom[row], state.priceTo[row]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void jdkParseDecimal(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            final int from = state.priceFrom[row];
+            final String price = new String(state.csv, from, state.priceTo[row] - from, StandardCharsets.US_ASCII);
+            bh.consume(new BigDecimal(price).setScale(PRICE_SCALE).unscaledValue().longValueExact());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseDecimal(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            bh.consume(AsciiNumberParser.parseDecimal(state.csv, state.priceFrom[row], state.priceTo[row],
+                                                      PRICE_SCALE));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void segmentParseDecimal(CsvState state, Blackhole bh) {
+        for (int row = 0; row < ROWS; ++row) {
+            bh.consume(AsciiNumberParser.parseDecimal(state.segment, state.priceFrom[row], state.priceTo[row],
+                                                      PRICE_SCALE));
+        }
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar NumberParsingBenchmark -prof gc
+     *
+     * Only doubles:
+     *    $ java -jar target/benchmarks.jar "NumberParsingBenchmark.*Double" -prof gc
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(NumberParsingBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
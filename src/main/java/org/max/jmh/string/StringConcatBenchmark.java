@@ -1,5 +1,7 @@
 package org.max.jmh.string;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -22,6 +24,12 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
  * StringConcatBenchmark.stringBuilderConcat                     avgt    5  107.174 ± 11.181  ns/op
  * StringConcatBenchmark.stringBuilderWithInitialCapacityConcat  avgt    5   76.207 ±  7.390  ns/op
  * StringConcatBenchmark.stringConcat                            avgt    5   49.878 ±  6.855  ns/op
+ *
+ * '*ToBytes' benchmarks measure the whole path to UTF-8 bytes, the way messages are written to sockets and files:
+ * the same String building followed by 'getBytes(UTF_8)' vs {@link Utf8Writer} that appends straight into
+ * a reusable byte[] (and optionally copies it into a direct ByteBuffer).
+ *
+ * All strings here are ASCII, see {@link CompactStringsBenchmark} for non-Latin-1 input.
  */
 @Fork(1)
 @BenchmarkMode(Mode.AverageTime)
@@ -32,6 +40,10 @@ public class StringConcatBenchmark {
 
     private static final Random RAND = new Random();
 
+    private static final byte[] HELLO = Utf8Writer.literal("hello");
+    private static final byte[] SEPARATOR = Utf8Writer.literal(", ");
+    private static final byte[] SUFFIX = Utf8Writer.literal("!!!");
+
     @State(Scope.Benchmark)
     public static class BenchmarkState {
         final int first = RAND.nextInt();
@@ -39,6 +51,12 @@ public class StringConcatBenchmark {
         final int third = RAND.nextInt();
     }
 
+    @State(Scope.Thread)
+    public static class WriterState {
+        final Utf8Writer writer = new Utf8Writer(64);
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(64);
+    }
+
     @Benchmark
     public void stringConcat(BenchmarkState state, Blackhole bh) {
         // below code will be compiled into:
@@ -71,6 +89,65 @@ public class StringConcatBenchmark {
         bh.consume(buf.toString());
     }
 
+    @Benchmark
+    public void stringConcatToBytes(BenchmarkState state, Blackhole bh) {
+        String res = "hello" + state.first + ", " + state.second + ", " + state.third + "!!!";
+        bh.consume(res.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void stringBuilderConcatToBytes(BenchmarkState state, Blackhole bh) {
+        StringBuilder buf = new StringBuilder();
+
+        buf.append("hello").
+            append(state.first).append(", ").
+            append(state.second).append(", ").
+            append(state.third).append("!!!");
+
+        bh.consume(buf.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void stringBuilderWithInitialCapacityConcatToBytes(BenchmarkState state, Blackhole bh) {
+        StringBuilder buf = new StringBuilder(64);
+
+        buf.append("hello").
+            append(state.first).append(", ").
+            append(state.second).append(", ").
+            append(state.third).append("!!!");
+
+        bh.consume(buf.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void utf8WriterToBytes(BenchmarkState state, WriterState writerState, Blackhole bh) {
+        Utf8Writer writer = writerState.writer.reset();
+
+        writer.append(HELLO).
+            append(state.first).append(SEPARATOR).
+            append(state.second).append(SEPARATOR).
+            append(state.third).append(SUFFIX);
+
+        bh.consume(writer.buffer());
+        bh.consume(writer.size());
+    }
+
+    @Benchmark
+    public void utf8WriterToDirectBuffer(BenchmarkState state, WriterState writerState, Blackhole bh) {
+        Utf8Writer writer = writerState.writer.reset();
+
+        writer.append(HELLO).
+            append(state.first).append(SEPARATOR).
+            append(state.second).append(SEPARATOR).
+            append(state.third).append(SUFFIX);
+
+        ByteBuffer directBuffer = writerState.directBuffer;
+        directBuffer.clear();
+        writer.writeTo(directBuffer);
+
+        bh.consume(directBuffer);
+    }
+
     /*
      * ============================== HOW TO RUN THIS TEST: ====================================
      *
@@ -81,6 +158,9 @@ public class StringConcatBenchmark {
      * a) Via the command line:
      *    $ ./mvnw clean package
      *    $ java -jar target/benchmarks.jar StringConcatBenchmark
+     *
+     * Allocation of the whole path to bytes:
+     *    $ java -jar target/benchmarks.jar "StringConcatBenchmark.*ToBytes|StringConcatBenchmark.*ToDirectBuffer" -prof gc
      */
 
     public static void main(String[] args) throws RunnerException {
@@ -0,0 +1,129 @@
+package org.max.jmh.string;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded, lossy intern cache for short strings decoded from UTF-8 bytes, e.g. symbols and keys of every
+ * parsed record.
+ *
+ * <ul>
+ *     <li>lookup goes straight from a byte[] slice: hash and compare the bytes, String is allocated only on miss</li>
+ *     <li>fixed number of 4-way sets, on miss a random entry of the set is replaced, so memory never grows beyond
+ *     the capacity, rare keys are evicted and hot keys stay</li>
+ *     <li>lock-free: entries are immutable (final fields), so plain array reads and writes are safe, racing threads
+ *     can at worst create 2 equal Strings or overwrite each other's entry</li>
+ * </ul>
+ *
+ * Returned Strings are not guaranteed to be the same instance for equal keys (eviction, races), it's a dedup
+ * cache, not a replacement of {@link String#intern()} for identity comparison.
+ */
+public final class StringInterner {
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final int WAYS = 4;
+
+    private static final long MULTIPLIER = 0x9E37_79B9_7F4A_7C15L;
+
+    private final Entry[] entries;
+    private final int setMask;
+
+    /**
+     * @param capacity - max number of cached strings, rounded up to the power of 2
+     */
+    public StringInterner(int capacity) {
+        final int slots = Math.max(Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1, WAYS);
+        this.entries = new Entry[slots];
+        this.setMask = slots / WAYS - 1;
+    }
+
+    public String intern(byte[] buf, int from, int to) {
+        final int hash = hash(buf, from, to);
+        final int base = (hash & setMask) * WAYS;
+        final Entry[] entries = this.entries;
+
+        for (int i = base; i < base + WAYS; ++i) {
+            final Entry entry = entries[i];
+
+            if (entry == null) {
+                break;
+            }
+
+            if (entry.hash == hash && Arrays.equals(entry.bytes, 0, entry.bytes.length, buf, from, to)) {
+                return entry.value;
+            }
+        }
+
+        final Entry entry = new Entry(hash, Arrays.copyOfRange(buf, from, to),
+                                      new String(buf, from, to - from, StandardCharsets.UTF_8));
+        entries[victim(base)] = entry;
+        return entry.value;
+    }
+
+    /**
+     * Number of occupied entries, for diagnostics only.
+     */
+    public int size() {
+        int size = 0;
+        for (Entry entry : entries) {
+            if (entry != null) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * First empty way of the set, random way if the set is full.
+     */
+    private int victim(int base) {
+        for (int i = base; i < base + WAYS; ++i) {
+            if (entries[i] == null) {
+                return i;
+            }
+        }
+        return base + ThreadLocalRandom.current().nextInt(WAYS);
+    }
+
+    /**
+     * 8 bytes at a time multiply-rotate hash, keys are short, so it's a couple of multiplications per lookup.
+     */
+    private static int hash(byte[] buf, int from, int to) {
+        long hash = (to - from) * MULTIPLIER;
+        int idx = from;
+
+        for (; to - idx >= Long.BYTES; idx += Long.BYTES) {
+            hash = Long.rotateLeft(hash ^ ((long) LONG_LE.get(buf, idx) * MULTIPLIER), 27) * MULTIPLIER;
+        }
+
+        long tail = 0L;
+        for (int shift = 0; idx < to; ++idx, shift += 8) {
+            tail |= (buf[idx] & 0xFFL) << shift;
+        }
+        hash = (hash ^ (tail * MULTIPLIER)) * MULTIPLIER;
+
+        // high bits of the product are mixed best
+        return (int) (hash >>> 32);
+    }
+
+    private static final class Entry {
+        final int hash;
+        final byte[] bytes;
+        final String value;
+
+        Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.max.jmh.string;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Decoding string fields (keys like "key-" + randVal) from a byte buffer when most of them repeat.
+ *
+ * <ul>
+ *     <li>newString - new String for every field, no dedup at all</li>
+ *     <li>stringIntern - new String(...).intern(), JVM string table</li>
+ *     <li>concurrentHashMap - new String, then putIfAbsent into unbounded ConcurrentHashMap</li>
+ *     <li>internCache - {@link StringInterner}, lookup straight from the bytes, bounded by {@link #CACHE_CAPACITY}</li>
+ *     <li>newStringDeduplicated - new String with G1 '-XX:+UseStringDeduplication', GC shares backing arrays
+ *     of equal strings in background, String objects themselves stay</li>
+ * </ul>
+ *
+ * Every approach is measured twice:
+ * <ul>
+ *     <li>throughput - time per field, run with '-prof gc' to see allocations and with '-t N' for concurrency,
+ *     interners are shared by all threads</li>
+ *     <li>retained* - decodes {@link #FIELDS} fields into a table kept alive and reports 'retainedBytes': heap used
+ *     after full GC minus heap used before, fresh interners every time. String table can't be cleared, so it's
+ *     a single shot per fork, time score is cold and meaningless, look at 'retainedBytes' only</li>
+ * </ul>
+ */
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class StringInterningBenchmark {
+
+    private static final int FIELDS = 1 << 20;
+    private static final int FIELDS_MASK = FIELDS - 1;
+
+    private static final int BATCH = 1 << 10;
+
+    private static final int CACHE_CAPACITY = 1 << 16;
+
+    @State(Scope.Benchmark)
+    public static class FieldsState {
+
+        @Param({"1000", "100000", "1000000"})
+        int distinctKeys;
+
+        byte[] buf;
+        int[] from = new int[FIELDS];
+        int[] to = new int[FIELDS];
+
+        StringInterner internCache;
+        ConcurrentHashMap<String, String> map;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            byte[][] keys = new byte[distinctKeys][];
+            for (int i = 0; i < distinctKeys; ++i) {
+                keys[i] = ("key-" + rand.nextInt()).getBytes(StandardCharsets.UTF_8);
+            }
+
+            // skewed towards the first keys: few hot keys and a long tail, same as symbols in market data
+            byte[][] fields = new byte[FIELDS][];
+            int totalLength = 0;
+            for (int i = 0; i < FIELDS; ++i) {
+                final double r = rand.nextDouble();
+                fields[i] = keys[(int) (r * r * distinctKeys)];
+                totalLength += fields[i].length + 1;
+            }
+
+            buf = new byte[totalLength];
+            int offset = 0;
+            for (int i = 0; i < FIELDS; ++i) {
+                from[i] = offset;
+                System.arraycopy(fields[i], 0, buf, offset, fields[i].length);
+                offset += fields[i].length;
+                to[i] = offset;
+                buf[offset++] = ',';
+            }
+
+            internCache = new StringInterner(CACHE_CAPACITY);
+            map = new ConcurrentHashMap<>();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CursorState {
+        int idx = ThreadLocalRandom.current().nextInt(FIELDS);
+    }
+
+    /**
+     * Table of decoded fields for 'retained*' benchmarks with its own interners.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedState {
+
+        public long retainedBytes;
+
+        String[] table;
+        long usedHeapBefore;
+
+        StringInterner internCache;
+        ConcurrentHashMap<String, String> map;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            table = new String[FIELDS];
+            usedHeapBefore = usedHeapAfterGc();
+
+            internCache = new StringInterner(CACHE_CAPACITY);
+            map = new ConcurrentHashMap<>();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            retainedBytes = usedHeapAfterGc() - usedHeapBefore;
+
+            table = null;
+            internCache = null;
+            map = null;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void newString(FieldsState fields, CursorState cursor, Blackhole bh) {
+        int idx = cursor.idx;
+        for (int i = 0; i < BATCH; ++i, idx = (idx + 1) & FIELDS_MASK) {
+            bh.consume(newString(fields, idx));
+        }
+        cursor.idx = idx;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void stringIntern(FieldsState fields, CursorState cursor, Blackhole bh) {
+        int idx = cursor.idx;
+        for (int i = 0; i < BATCH; ++i, idx = (idx + 1) & FIELDS_MASK) {
+            bh.consume(newString(fields, idx).intern());
+        }
+        cursor.idx = idx;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void concurrentHashMap(FieldsState fields, CursorState cursor, Blackhole bh) {
+        int idx = cursor.idx;
+        for (int i = 0; i < BATCH; ++i, idx = (idx + 1) & FIELDS_MASK) {
+            bh.consume(intern(fields.map, newString(fields, idx)));
+        }
+        cursor.idx = idx;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void internCache(FieldsState fields, CursorState cursor, Blackhole bh) {
+        int idx = cursor.idx;
+        for (int i = 0; i < BATCH; ++i, idx = (idx + 1) & FIELDS_MASK) {
+            bh.consume(fields.internCache.intern(fields.buf, fields.from[idx], fields.to[idx]));
+        }
+        cursor.idx = idx;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    @Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G", "-XX:+UseG1GC", "-XX:+UseStringDeduplication"})
+    public void newStringDeduplicated(FieldsState fields, CursorState cursor, Blackhole bh) {
+        newString(fields, cursor, bh);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 3, jvmArgs = {"-Xms2G", "-Xmx2G"})
+    public void retainedNewString(FieldsState fields, RetainedState retained) {
+        for (int idx = 0; idx < FIELDS; ++idx) {
+            retained.table[idx] = newString(fields, idx);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 3, jvmArgs = {"-Xms2G", "-Xmx2G"})
+    public void retainedStringIntern(FieldsState fields, RetainedState retained) {
+        for (int idx = 0; idx < FIELDS; ++idx) {
+            retained.table[idx] = newString(fields, idx).intern();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 3, jvmArgs = {"-Xms2G", "-Xmx2G"})
+    public void retainedConcurrentHashMap(FieldsState fields, RetainedState retained) {
+        for (int idx = 0; idx < FIELDS; ++idx) {
+            retained.table[idx] = intern(retained.map, newString(fields, idx));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 3, jvmArgs = {"-Xms2G", "-Xmx2G"})
+    public void retainedInternCache(FieldsState fields, RetainedState retained) {
+        for (int idx = 0; idx < FIELDS; ++idx) {
+            retained.table[idx] = retained.internCache.intern(fields.buf, fields.from[idx], fields.to[idx]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 3, jvmArgs = {"-Xms2G", "-Xmx2G", "-XX:+UseG1GC", "-XX:+UseStringDeduplication"})
+    public void retainedNewStringDeduplicated(FieldsState fields, RetainedState retained) {
+        retainedNewString(fields, retained);
+    }
+
+    private static String newString(FieldsState fields, int idx) {
+        final int from = fields.from[idx];
+        return new String(fields.buf, from, fields.to[idx] - from, StandardCharsets.UTF_8);
+    }
+
+    private static String intern(ConcurrentHashMap<String, String> map, String value) {
+        final String prev = map.putIfAbsent(value, value);
+        return prev == null ? value : prev;
+    }
+
+    /**
+     * Several GCs with pauses in between: string deduplication runs in a background thread after GC and
+     * deduplicated arrays are freed only by the next GC.
+     */
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+            try {
+                Thread.sleep(200L);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar StringInterningBenchmark -prof gc
+     *
+     * Concurrent throughput only:
+     *    $ java -jar target/benchmarks.jar "StringInterningBenchmark.(newString|stringIntern|concurrentHashMap|internCache)" -t 4
+     *
+     * Retained heap only:
+     *    $ java -jar target/benchmarks.jar "StringInterningBenchmark.retained"
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(StringInterningBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        //            .threads(Runtime.getRuntime().availableProcessors())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
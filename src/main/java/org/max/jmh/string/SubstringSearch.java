@@ -0,0 +1,29 @@
+package org.max.jmh.string;
+
+/**
+ * Searches a single needle, compiled once, in ASCII/UTF-8 byte buffers.
+ *
+ * Implementations are immutable and thread-safe.
+ */
+public interface SubstringSearch {
+
+    int NOT_FOUND = -1;
+
+    /**
+     * @return index of the first occurrence of the needle in 'haystack[from; to)' or {@link #NOT_FOUND}
+     */
+    int indexOf(byte[] haystack, int from, int to);
+
+    /**
+     * Counts all occurrences, overlapping ones included, same as {@link AhoCorasick#count(byte[], int, int)}.
+     */
+    default long count(byte[] haystack, int from, int to) {
+        long count = 0L;
+
+        for (int idx = indexOf(haystack, from, to); idx != NOT_FOUND; idx = indexOf(haystack, idx + 1, to)) {
+            ++count;
+        }
+
+        return count;
+    }
+}
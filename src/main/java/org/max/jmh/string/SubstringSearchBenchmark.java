@@ -0,0 +1,251 @@
+package org.max.jmh.string;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Counting all occurrences of a needle in a log-like ASCII text, 'grep -c' style.
+ *
+ * <ul>
+ *     <li>stringIndexOf - String.indexOf over Latin-1 String, JDK intrinsic</li>
+ *     <li>boyerMooreHorspool - {@link BoyerMooreHorspool}, skips ahead by the bad character shift</li>
+ *     <li>swar - {@link SwarSubstringSearch}, first and last needle bytes checked 8 positions at a time</li>
+ *     <li>vector - {@link VectorSubstringSearch}, same filter with Vector API</li>
+ * </ul>
+ *
+ * Multi-pattern search of {@link #PATTERNS_COUNT} needles:
+ * <ul>
+ *     <li>stringIndexOfEachPattern - one String.indexOf pass per pattern</li>
+ *     <li>ahoCorasick - {@link AhoCorasick}, single pass for all patterns</li>
+ * </ul>
+ *
+ * Text is lowercase words, numbers and punctuation, needles are random lowercase strings planted every
+ * {@link #PLANT_DISTANCE} bytes, so the first needle byte is common in the text, which is the hard case for
+ * first byte filters. Throughput is 'haystackSize / score'.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"}, jvmArgsPrepend = "--add-modules=jdk.incubator.vector")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class SubstringSearchBenchmark {
+
+    private static final int PATTERNS_COUNT = 8;
+
+    private static final int PLANT_DISTANCE = 64 * 1024;
+
+    private static final String[] WORDS = {
+        "info", "warn", "error", "debug", "request", "response", "user", "session", "order", "payment",
+        "timeout", "retry", "connection", "closed", "opened", "started", "finished", "worker", "thread", "queue",
+        "cache", "hit", "miss", "latency", "status", "path", "api", "v1", "orders", "accounts", "id", "ms"
+    };
+
+    private static final String PUNCTUATION = " =:,/[]-.";
+
+    @State(Scope.Benchmark)
+    public static class HaystackState {
+
+        @Param({"1024", "1048576", "67108864", "1073741824"})
+        int haystackSize;
+
+        @Param({"4", "16", "64"})
+        int needleLength;
+
+        byte[] haystack;
+        byte[] needle;
+        byte[][] patterns;
+
+        BoyerMooreHorspool boyerMooreHorspool;
+        SwarSubstringSearch swar;
+        VectorSubstringSearch vector;
+        AhoCorasick ahoCorasick;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(133L);
+
+            patterns = new byte[PATTERNS_COUNT][];
+            for (int i = 0; i < PATTERNS_COUNT; ++i) {
+                patterns[i] = randomLowercase(rand, needleLength);
+            }
+            needle = patterns[0];
+
+            haystack = new byte[haystackSize];
+            fillWithLogText(haystack, rand);
+
+            // every pattern at least once, even in the smallest haystack
+            final int plantDistance = Math.min(PLANT_DISTANCE, Math.max(haystackSize / PATTERNS_COUNT, needleLength));
+            for (int i = 0, offset = 0; offset + plantDistance <= haystackSize; ++i, offset += plantDistance) {
+                final byte[] pattern = patterns[i % PATTERNS_COUNT];
+                if (pattern.length <= plantDistance) {
+                    System.arraycopy(pattern, 0, haystack, offset + rand.nextInt(plantDistance - pattern.length + 1),
+                                     pattern.length);
+                }
+            }
+
+            boyerMooreHorspool = new BoyerMooreHorspool(needle);
+            swar = new SwarSubstringSearch(needle);
+            vector = new VectorSubstringSearch(needle);
+            ahoCorasick = new AhoCorasick(patterns);
+
+            afterSetUp();
+        }
+
+        /**
+         * JMH doesn't guarantee the order of superclass and subclass '@Setup' methods, so it's a plain hook.
+         */
+        void afterSetUp() {
+        }
+    }
+
+    /**
+     * Same haystack as String, byte[] is dropped to keep memory usage the same for 1GB haystack.
+     */
+    public static class StringHaystackState extends HaystackState {
+
+        String haystackStr;
+        String needleStr;
+        String[] patternsStr;
+
+        @Override
+        void afterSetUp() {
+            haystackStr = new String(haystack, StandardCharsets.ISO_8859_1);
+            haystack = null;
+
+            needleStr = new String(needle, StandardCharsets.ISO_8859_1);
+
+            patternsStr = new String[patterns.length];
+            for (int i = 0; i < patterns.length; ++i) {
+                patternsStr[i] = new String(patterns[i], StandardCharsets.ISO_8859_1);
+            }
+        }
+    }
+
+    @Benchmark
+    public void stringIndexOf(StringHaystackState state, Blackhole bh) {
+        bh.consume(countAll(state.haystackStr, state.needleStr));
+    }
+
+    @Benchmark
+    public void boyerMooreHorspool(HaystackState state, Blackhole bh) {
+        bh.consume(state.boyerMooreHorspool.count(state.haystack, 0, state.haystack.length));
+    }
+
+    @Benchmark
+    public void swar(HaystackState state, Blackhole bh) {
+        bh.consume(state.swar.count(state.haystack, 0, state.haystack.length));
+    }
+
+    @Benchmark
+    public void vector(HaystackState state, Blackhole bh) {
+        bh.consume(state.vector.count(state.haystack, 0, state.haystack.length));
+    }
+
+    @Benchmark
+    public void stringIndexOfEachPattern(StringHaystackState state, Blackhole bh) {
+        long count = 0L;
+        for (String pattern : state.patternsStr) {
+            count += countAll(state.haystackStr, pattern);
+        }
+        bh.consume(count);
+    }
+
+    @Benchmark
+    public void ahoCorasick(HaystackState state, Blackhole bh) {
+        bh.consume(state.ahoCorasick.count(state.haystack, 0, state.haystack.length));
+    }
+
+    private static long countAll(String haystack, String needle) {
+        long count = 0L;
+
+        for (int idx = haystack.indexOf(needle); idx != -1; idx = haystack.indexOf(needle, idx + 1)) {
+            ++count;
+        }
+
+        return count;
+    }
+
+    private static byte[] randomLowercase(SplittableRandom rand, int length) {
+        byte[] res = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            res[i] = (byte) ('a' + rand.nextInt(26));
+        }
+        return res;
+    }
+
+    /**
+     * Words separated by punctuation, numbers and new lines.
+     */
+    private static void fillWithLogText(byte[] text, SplittableRandom rand) {
+        final byte[][] words = new byte[WORDS.length][];
+        for (int i = 0; i < WORDS.length; ++i) {
+            words[i] = WORDS[i].getBytes(StandardCharsets.US_ASCII);
+        }
+
+        int idx = 0;
+        while (idx < text.length) {
+            final int kind = rand.nextInt(16);
+
+            if (kind < 10) {
+                final byte[] word = words[rand.nextInt(words.length)];
+                final int length = Math.min(word.length, text.length - idx);
+                System.arraycopy(word, 0, text, idx, length);
+                idx += length;
+            }
+            else if (kind < 13) {
+                for (int digits = 1 + rand.nextInt(6); digits > 0 && idx < text.length; --digits) {
+                    text[idx++] = (byte) ('0' + rand.nextInt(10));
+                }
+            }
+            else if (kind < 15) {
+                text[idx++] = (byte) PUNCTUATION.charAt(rand.nextInt(PUNCTUATION.length()));
+            }
+            else {
+                text[idx++] = '\n';
+            }
+
+            if (idx < text.length) {
+                text[idx++] = ' ';
+            }
+        }
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS BENCHMARK ====================================
+     *
+     * To run benchmark and see the results do the following:
+     *    $ ./mvnw clean package
+     *    $ java -jar target/benchmarks.jar SubstringSearchBenchmark
+     *
+     * Full run with 1GB haystack takes a while, to skip it:
+     *    $ java -jar target/benchmarks.jar SubstringSearchBenchmark -p haystackSize=1024,1048576,67108864
+     *
+     * ==============================================================================================
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt =
+                new OptionsBuilder()
+                        .include(SubstringSearchBenchmark.class.getSimpleName())
+                        .build();
+
+        new Runner(opt).run();
+    }
+}
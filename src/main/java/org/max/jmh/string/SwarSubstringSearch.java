@@ -0,0 +1,79 @@
+package org.max.jmh.string;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * SIMD within a register: 8 window positions are checked at once. Two longs are read, one at the window start
+ * and one at the window end, and compared with the first and the last needle bytes broadcast into all 8 lanes.
+ * Only positions where both bytes match are verified, so common first bytes produce few false candidates.
+ *
+ * <pre>
+ *     zero byte flags: (x - 0x0101..01) & ~x & 0x8080..80
+ * </pre>
+ *
+ * Flags can be false positives above a real zero byte (borrow), never false negatives, which is fine for
+ * a candidate filter.
+ */
+public final class SwarSubstringSearch implements SubstringSearch {
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long LOW_BITS = 0x0101_0101_0101_0101L;
+    private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+
+    private final byte[] needle;
+
+    private final long firstBytes;
+    private final long lastBytes;
+
+    public SwarSubstringSearch(byte[] needle) {
+        if (needle.length == 0) {
+            throw new IllegalArgumentException("Empty needle");
+        }
+
+        this.needle = needle.clone();
+        this.firstBytes = (needle[0] & 0xFFL) * LOW_BITS;
+        this.lastBytes = (needle[needle.length - 1] & 0xFFL) * LOW_BITS;
+    }
+
+    @Override
+    public int indexOf(byte[] haystack, int from, int to) {
+        final byte[] needle = this.needle;
+        final int last = needle.length - 1;
+
+        int idx = from;
+
+        for (final int bound = to - last - Long.BYTES; idx <= bound; idx += Long.BYTES) {
+            final long firstEq = (long) LONG_LE.get(haystack, idx) ^ firstBytes;
+            final long lastEq = (long) LONG_LE.get(haystack, idx + last) ^ lastBytes;
+
+            long candidates = zeroBytes(firstEq) & zeroBytes(lastEq);
+
+            while (candidates != 0L) {
+                final int candidate = idx + (Long.numberOfTrailingZeros(candidates) >>> 3);
+
+                // flags can be false positives, so the whole needle is verified
+                if (Arrays.equals(haystack, candidate, candidate + needle.length, needle, 0, needle.length)) {
+                    return candidate;
+                }
+
+                candidates &= candidates - 1;
+            }
+        }
+
+        for (; idx <= to - needle.length; ++idx) {
+            if (haystack[idx] == needle[0] && Arrays.equals(haystack, idx, idx + needle.length, needle, 0, needle.length)) {
+                return idx;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private static long zeroBytes(long word) {
+        return (word - LOW_BITS) & ~word & HIGH_BITS;
+    }
+}
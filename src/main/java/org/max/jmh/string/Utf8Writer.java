@@ -0,0 +1,174 @@
+package org.max.jmh.string;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Appends text and numbers straight into a reusable byte[] as UTF-8, without any intermediate String.
+ *
+ * <ul>
+ *     <li>literals are encoded once, see {@link #literal(String)}, and appended with a single array copy</li>
+ *     <li>ints and longs are written from the end, 2 digits per division using the '00'..'99' lookup table</li>
+ *     <li>{@link #writeTo(ByteBuffer)} copies the result into a (direct) buffer for channel writes</li>
+ * </ul>
+ *
+ * Not thread-safe, keep one writer per thread and call {@link #reset()} before every message.
+ */
+public final class Utf8Writer {
+
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    static {
+        for (int i = 0; i < 100; ++i) {
+            DIGIT_PAIRS[i << 1] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[(i << 1) + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private static final byte[] LONG_MIN_VALUE = literal(Long.toString(Long.MIN_VALUE));
+
+    private byte[] buf;
+    private int size;
+
+    public Utf8Writer(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+    }
+
+    /**
+     * Encodes a literal once, result should be kept in a static final field.
+     */
+    public static byte[] literal(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public Utf8Writer reset() {
+        size = 0;
+        return this;
+    }
+
+    public Utf8Writer append(byte[] utf8) {
+        ensureCapacity(utf8.length);
+        System.arraycopy(utf8, 0, buf, size, utf8.length);
+        size += utf8.length;
+        return this;
+    }
+
+    public Utf8Writer append(int value) {
+        return append((long) value);
+    }
+
+    public Utf8Writer append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(LONG_MIN_VALUE);
+        }
+
+        ensureCapacity(20);
+
+        if (value < 0) {
+            buf[size++] = '-';
+            value = -value;
+        }
+
+        final int digits = digitsCount(value);
+        int pos = size + digits;
+        size = pos;
+
+        final byte[] buf = this.buf;
+
+        while (value >= 100) {
+            final int pair = (int) (value % 100) << 1;
+            value /= 100;
+
+            buf[--pos] = DIGIT_PAIRS[pair + 1];
+            buf[--pos] = DIGIT_PAIRS[pair];
+        }
+
+        final int pair = (int) value << 1;
+        buf[--pos] = DIGIT_PAIRS[pair + 1];
+        if (value >= 10) {
+            buf[--pos] = DIGIT_PAIRS[pair];
+        }
+
+        return this;
+    }
+
+    /**
+     * Encodes chars as UTF-8 on the fly, ASCII is the fast path. Unpaired surrogates are replaced with '?',
+     * same as {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    public Utf8Writer append(CharSequence value) {
+        final int length = value.length();
+        ensureCapacity(length * 3);
+
+        final byte[] buf = this.buf;
+        int pos = size;
+
+        for (int i = 0; i < length; ++i) {
+            final char ch = value.charAt(i);
+
+            if (ch < 0x80) {
+                buf[pos++] = (byte) ch;
+            }
+            else if (ch < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (ch >> 6));
+                buf[pos++] = (byte) (0x80 | (ch & 0x3F));
+            }
+            else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(ch, value.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            else if (Character.isSurrogate(ch)) {
+                buf[pos++] = '?';
+            }
+            else {
+                buf[pos++] = (byte) (0xE0 | (ch >> 12));
+                buf[pos++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (ch & 0x3F));
+            }
+        }
+
+        size = pos;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Internal buffer, only first {@link #size()} bytes are valid.
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    public void writeTo(ByteBuffer dst) {
+        dst.put(buf, 0, size);
+    }
+
+    private static int digitsCount(long value) {
+        int count = 1;
+        long bound = 10L;
+
+        while (count < 19 && value >= bound) {
+            ++count;
+            bound *= 10L;
+        }
+
+        return count;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, size + extra));
+        }
+    }
+}
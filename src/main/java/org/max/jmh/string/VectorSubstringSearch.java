@@ -0,0 +1,63 @@
+package org.max.jmh.string;
+
+import java.util.Arrays;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Same first and last byte filter as {@link SwarSubstringSearch}, but with Vector API: 16, 32 or 64 window positions
+ * per iteration depending on the CPU (SSE, AVX2, AVX-512). Equality masks are exact, so only real first/last byte
+ * matches are verified.
+ *
+ * Requires '--add-modules=jdk.incubator.vector'.
+ */
+public final class VectorSubstringSearch implements SubstringSearch {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private final byte[] needle;
+
+    public VectorSubstringSearch(byte[] needle) {
+        if (needle.length == 0) {
+            throw new IllegalArgumentException("Empty needle");
+        }
+
+        this.needle = needle.clone();
+    }
+
+    @Override
+    public int indexOf(byte[] haystack, int from, int to) {
+        final byte[] needle = this.needle;
+        final int last = needle.length - 1;
+
+        final ByteVector firstBytes = ByteVector.broadcast(SPECIES, needle[0]);
+        final ByteVector lastBytes = ByteVector.broadcast(SPECIES, needle[last]);
+
+        int idx = from;
+
+        for (final int bound = to - last - SPECIES.length(); idx <= bound; idx += SPECIES.length()) {
+            final ByteVector windowStarts = ByteVector.fromArray(SPECIES, haystack, idx);
+            final ByteVector windowEnds = ByteVector.fromArray(SPECIES, haystack, idx + last);
+
+            long candidates = windowStarts.eq(firstBytes).and(windowEnds.eq(lastBytes)).toLong();
+
+            while (candidates != 0L) {
+                final int candidate = idx + Long.numberOfTrailingZeros(candidates);
+
+                if (Arrays.equals(haystack, candidate, candidate + needle.length, needle, 0, needle.length)) {
+                    return candidate;
+                }
+
+                candidates &= candidates - 1;
+            }
+        }
+
+        for (; idx <= to - needle.length; ++idx) {
+            if (haystack[idx] == needle[0] && Arrays.equals(haystack, idx, idx + needle.length, needle, 0, needle.length)) {
+                return idx;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+}